@@ -1,4 +1,4 @@
-from flask import Flask, jsonify, render_template
+from flask import Flask, jsonify, render_template, request
 from datetime import datetime
 import socket
 import os
@@ -26,6 +26,12 @@ def get_db_connection():
     )
     return conn
 
+def conditional_json(payload):
+    # Adds an ETag so pollers such as the voting service can skip unchanged catalogues
+    response = jsonify(payload)
+    response.add_etag()
+    return response.make_conditional(request)
+
 @app.route('/')
 def home():
     system_info = get_system_info()
@@ -61,9 +67,9 @@ def get_products():
         ]
         cur.close()
         conn.close()
-        return jsonify(products_dict), 200
+        return conditional_json(products_dict)
     else:
-        return jsonify(products), 200
+        return conditional_json(products)
 
 @app.route('/api/products/<int:product_id>', methods=['GET'])
 def get_product(product_id):
@@ -0,0 +1,55 @@
+package com.crafty.voting.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Serves products 1..n shaped like the catalogue service's from /api/products on a free local port
+final class CatalogueStub implements AutoCloseable {
+
+    private final HttpServer server;
+
+    CatalogueStub(int items) throws IOException {
+        byte[] products = catalogueJson(items);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/products", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, products.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(products);
+            }
+        });
+        server.start();
+    }
+
+    // For catalogue.service-url
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/products";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static byte[] catalogueJson(int items) {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= items; id++) {
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id)
+                .append(",\"name\":\"Origami ").append(id).append('"')
+                .append(",\"category\":\"animals\",\"difficulty\":\"intermediate\"")
+                .append(",\"tags\":[\"paper\",\"fold\",\"classic\"]")
+                .append(",\"short_description\":\"A classic model\"")
+                .append(",\"description\":\"Fold the square in half diagonally, then fold the corners to the centre line and repeat on the other side.\"")
+                .append(",\"image_url\":\"/static/images/origami/").append(id).append(".png\"")
+                .append(",\"created_at\":\"2024-01-01T00:00:00\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,280 @@
+package com.crafty.voting.benchmarks;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.service.OrigamiService;
+import com.crafty.voting.service.OrigamiStore;
+import com.crafty.voting.service.OrigamiSynchronizationService;
+import com.crafty.voting.service.ShardedVoteCounters;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Self-contained load test of the vote path. Serves a stub catalogue of products 1..n, boots the
+ * voting service against it on its own H2 database and web server, waits for the catalogue to be
+ * imported, then drives votes, vote-count reads and list pages over HTTP from concurrent clients:
+ *
+ *   java -cp target/benchmarks.jar com.crafty.voting.benchmarks.LoadTest \
+ *       [concurrency=64] [seconds=20] [warmup=5] [products=1000] [mix=60,30,10] [--spring.property=value ...]
+ *
+ * mix is the percentage of votes, reads and list pages. Throughput and latency percentiles are
+ * printed per operation. Afterwards pending votes are flushed and the stored count of every origami
+ * is compared with the votes the service acknowledged; votes whose request failed may or may not
+ * have counted. Exits with status 1 when a count is outside that range. LoadTestTests runs a short
+ * version as part of the module's build.
+ */
+public final class LoadTest {
+
+    private enum Operation { VOTE, READ, LIST }
+
+    private static final int PAGE_SIZE = 50;
+    private static final Duration IMPORT_TIMEOUT = Duration.ofSeconds(60);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                springArgs.add(arg);
+            } else {
+                String[] option = arg.split("=", 2);
+                options.put(option[0], option[1]);
+            }
+        }
+        System.exit(run(options, springArgs) ? 0 : 1);
+    }
+
+    // Returns whether every stored vote count matched the acknowledged votes
+    static boolean run(Map<String, String> options, List<String> springArgs) throws Exception {
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int products = Integer.parseInt(options.getOrDefault("products", "1000"));
+        int[] mix = Arrays.stream(options.getOrDefault("mix", "60,30,10").split(",")).mapToInt(Integer::parseInt).toArray();
+
+        try (CatalogueStub catalogue = new CatalogueStub(products);
+             ConfigurableApplicationContext context = VotingContext.startServer(catalogue.url(), springArgs.toArray(String[]::new))) {
+            awaitImport(context, products);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            System.out.printf("%d clients for %d s (+%d s warm-up) on %d origamis, mix vote/read/list %d/%d/%d%n",
+                concurrency, seconds, warmup, products, mix[0], mix[1], mix[2]);
+
+            Run run = new Run(baseUrl, products, mix);
+            run.drive(concurrency, warmup, seconds);
+            run.report(seconds);
+            return run.verify(context);
+        }
+    }
+
+    /**
+     * Syncs until the whole stub catalogue is stored; a failed cycle is retried after a pause. While
+     * the cycle scheduled at startup is still running, a call returns without fetching, so the two
+     * never upsert the same products concurrently; the loop then polls until that cycle is done.
+     */
+    private static void awaitImport(ConfigurableApplicationContext context, int products) throws InterruptedException {
+        OrigamiSynchronizationService synchronizationService = context.getBean(OrigamiSynchronizationService.class);
+        OrigamiStore origamiStore = context.getBean(OrigamiStore.class);
+        long deadline = System.nanoTime() + IMPORT_TIMEOUT.toNanos();
+        while (origamiStore.count() < products) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Catalogue of " + products + " products was not imported within "
+                    + IMPORT_TIMEOUT.toSeconds() + " s, " + origamiStore.count() + " stored");
+            }
+            synchronizationService.synchronizeOrigamis();
+            if (origamiStore.count() < products) {
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private static final class Run {
+
+        private final String baseUrl;
+        private final int products;
+        private final int[] mix;
+        private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        // Indexed by origami ID; a failed request may or may not have counted its vote
+        private final AtomicLongArray acknowledged;
+        private final AtomicLongArray uncertain;
+
+        private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+        Run(String baseUrl, int products, int[] mix) {
+            this.baseUrl = baseUrl;
+            this.products = products;
+            this.mix = mix;
+            this.acknowledged = new AtomicLongArray(products + 1);
+            this.uncertain = new AtomicLongArray(products + 1);
+            for (Operation operation : Operation.values()) {
+                samples.put(operation, new Samples());
+            }
+        }
+
+        void drive(int concurrency, int warmup, int seconds) throws Exception {
+            long measureFrom = System.nanoTime() + Duration.ofSeconds(warmup).toNanos();
+            long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            try {
+                List<Future<Map<Operation, Samples>>> workers = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    workers.add(executor.submit(() -> client(measureFrom, deadline)));
+                }
+                for (Future<Map<Operation, Samples>> worker : workers) {
+                    worker.get().forEach((operation, recorded) -> samples.get(operation).addAll(recorded));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private Map<Operation, Samples> client(long measureFrom, long deadline) {
+            Map<Operation, Samples> recorded = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorded.put(operation, new Samples());
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                int id = random.nextInt(1, products + 1);
+                int roll = random.nextInt(100);
+                Operation operation = roll < mix[0] ? Operation.VOTE : roll < mix[0] + mix[1] ? Operation.READ : Operation.LIST;
+                boolean ok = send(operation, id);
+                if (now >= measureFrom) {
+                    recorded.get(operation).add(System.nanoTime() - now, ok);
+                }
+            }
+            return recorded;
+        }
+
+        private boolean send(Operation operation, int id) {
+            HttpRequest request = switch (operation) {
+                case VOTE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/origamis/" + id + "/vote"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+                case READ -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/origamis/" + id + "/votes")).GET().build();
+                case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/origamis?limit=" + PAGE_SIZE + "&after=" + (id - 1)))
+                    .GET().build();
+            };
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (operation == Operation.VOTE && status == 200) {
+                    acknowledged.incrementAndGet(id);
+                } else if (operation == Operation.VOTE && status >= 500) {
+                    uncertain.incrementAndGet(id);
+                }
+                return status == 200;
+            } catch (Exception e) {
+                if (operation == Operation.VOTE) {
+                    uncertain.incrementAndGet(id);
+                }
+                return false;
+            }
+        }
+
+        void report(int seconds) {
+            Samples all = new Samples();
+            System.out.printf("%-6s %10s %8s %10s %10s %10s %10s %10s%n", "", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            for (Operation operation : Operation.values()) {
+                Samples recorded = samples.get(operation);
+                print(operation.name().toLowerCase(), recorded, seconds);
+                all.addAll(recorded);
+            }
+            print("all", all, seconds);
+        }
+
+        private static void print(String label, Samples samples, int seconds) {
+            long[] sorted = samples.sorted();
+            System.out.printf("%-6s %10d %8d %10.0f %10.2f %10.2f %10.2f %10.2f%n", label, sorted.length, samples.errors,
+                sorted.length / (double) seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        // Flushes buffered and sharded votes first, so the stored counts are final
+        boolean verify(ConfigurableApplicationContext context) {
+            context.getBean(OrigamiService.class).flushPendingVotes();
+            context.getBean(ShardedVoteCounters.class).foldShards();
+            long expected = 0;
+            long stored = 0;
+            List<String> mismatches = new ArrayList<>();
+            for (Origami origami : context.getBean(OrigamiStore.class).findAll()) {
+                int id = Math.toIntExact(origami.getOrigamiId());
+                long low = acknowledged.get(id);
+                long high = low + uncertain.get(id);
+                expected += low;
+                stored += origami.getVotes();
+                if (origami.getVotes() < low || origami.getVotes() > high) {
+                    mismatches.add("origami " + id + ": stored " + origami.getVotes() + ", acknowledged " + low
+                        + (high > low ? " (+" + (high - low) + " uncertain)" : ""));
+                }
+            }
+            System.out.printf("votes acknowledged=%d stored=%d%n", expected, stored);
+            if (mismatches.isEmpty()) {
+                System.out.println("Vote counts match");
+                return true;
+            }
+            System.out.printf("Vote counts of %d origamis do not match:%n", mismatches.size());
+            mismatches.stream().limit(20).forEach(mismatch -> System.out.println("  " + mismatch));
+            return false;
+        }
+    }
+
+    // Latencies in nanoseconds, appended by one client and merged after the run
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void add(long latency, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
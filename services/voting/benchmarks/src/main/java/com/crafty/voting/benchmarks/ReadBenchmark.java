@@ -0,0 +1,60 @@
+package com.crafty.voting.benchmarks;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.service.OrigamiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Origami and vote-count lookups against H2, with the origami cache enabled ({@code caffeine})
+ * and disabled ({@code none}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class ReadBenchmark {
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    @Param({"1000"})
+    public int origamis;
+
+    private ConfigurableApplicationContext context;
+    private OrigamiService origamiService;
+    private String[] ids;
+
+    @Setup
+    public void start() {
+        context = VotingContext.start("--spring.cache.type=" + cache);
+        ids = VotingContext.seedOrigamis(context, origamis).toArray(String[]::new);
+        origamiService = context.getBean(OrigamiService.class);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Origami> getOrigamiById() {
+        return origamiService.getOrigamiById(randomId());
+    }
+
+    @Benchmark
+    public long getVotes() {
+        return origamiService.getVotes(randomId());
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,52 @@
+package com.crafty.voting.benchmarks;
+
+import com.crafty.voting.repository.jpa.OrigamiRepository;
+import com.crafty.voting.service.OrigamiSynchronizationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full catalogue sync cycle against a local stub serving products shaped like the catalogue
+ * service's. Every product is already stored, so this is the steady-state cycle: fetch, parse and diff.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SyncBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    private CatalogueStub catalogue;
+    private ConfigurableApplicationContext context;
+    private OrigamiSynchronizationService synchronizationService;
+
+    @Setup
+    public void start() throws IOException {
+        catalogue = new CatalogueStub(items);
+        context = VotingContext.startWithCatalogue(catalogue.url());
+        synchronizationService = context.getBean(OrigamiSynchronizationService.class);
+        // Wait for the initial import, which the scheduled sync may already be running, so that measured cycles only diff
+        OrigamiRepository origamiRepository = context.getBean(OrigamiRepository.class);
+        while (origamiRepository.count() < items) {
+            synchronizationService.synchronizeOrigamis();
+        }
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+        catalogue.close();
+    }
+
+    @Benchmark
+    public void synchronizeOrigamis() {
+        synchronizationService.synchronizeOrigamis();
+    }
+}
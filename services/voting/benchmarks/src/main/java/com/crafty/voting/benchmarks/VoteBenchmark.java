@@ -0,0 +1,56 @@
+package com.crafty.voting.benchmarks;
+
+import com.crafty.voting.controller.VotingController;
+import com.crafty.voting.model.Origami;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /api/origamis/{id}/vote} without the HTTP layer, from 8 threads at once.
+ * With a single origami every thread contends for the same row or counter. The {@code memory}
+ * store takes the database out of the measurement, leaving the service and controller overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class VoteBenchmark {
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    @Param({"1", "1000"})
+    public int origamis;
+
+    @Param({"jpa", "memory"})
+    public String store;
+
+    private ConfigurableApplicationContext context;
+    private VotingController controller;
+    private String[] ids;
+
+    @Setup
+    public void start() {
+        context = VotingContext.start("--voting.write-behind.enabled=" + writeBehind,
+            "--spring.profiles.include=" + ("memory".equals(store) ? "memory" : ""));
+        ids = VotingContext.seedOrigamis(context, origamis).toArray(String[]::new);
+        controller = context.getBean(VotingController.class);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Origami> voteForOrigami() {
+        return controller.voteForOrigami(ids[ThreadLocalRandom.current().nextInt(ids.length)], null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.crafty.voting.benchmarks;
+
+import com.crafty.voting.VotingApplication;
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.service.OrigamiService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Boots the voting service on its own in-memory H2 database, without a web server unless started with startServer
+final class VotingContext {
+
+    private VotingContext() {}
+
+    // The scheduled catalogue sync fails fast against an unreachable catalogue and then stays off
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        return startWithCatalogue("http://localhost:1/api/products", extraArgs);
+    }
+
+    static ConfigurableApplicationContext startWithCatalogue(String catalogueUrl, String... extraArgs) {
+        return new SpringApplicationBuilder(VotingApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(args(catalogueUrl, extraArgs));
+    }
+
+    // With the web server on a free port, read back from local.server.port, for driving the service over HTTP
+    static ConfigurableApplicationContext startServer(String catalogueUrl, String... extraArgs) {
+        return new SpringApplicationBuilder(VotingApplication.class)
+            .web(WebApplicationType.SERVLET)
+            .run(args(catalogueUrl, Stream.concat(Stream.of("--server.port=0"), Stream.of(extraArgs)).toArray(String[]::new)));
+    }
+
+    private static String[] args(String catalogueUrl, String... extraArgs) {
+        return Stream.concat(Stream.of(
+            "--spring.profiles.active=h2",
+            "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--catalogue.service-url=" + catalogueUrl,
+            "--catalogue.retry.max-attempts=1"
+        ), Stream.of(extraArgs)).toArray(String[]::new);
+    }
+
+    static List<String> seedOrigamis(ConfigurableApplicationContext context, int count) {
+        OrigamiService origamiService = context.getBean(OrigamiService.class);
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Origami origami = new Origami();
+            origami.setName("Origami " + i);
+            ids.add(String.valueOf(origamiService.saveOrUpdateOrigami(origami).getOrigamiId()));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,25 @@
+package com.crafty.voting.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Short LoadTest runs, small enough for every build; run LoadTest itself for real numbers
+class LoadTestTests {
+
+    private static final Map<String, String> SHORT_RUN =
+        Map.of("concurrency", "4", "seconds", "2", "warmup", "0", "products", "20");
+
+    @Test
+    void acknowledgedVotesAreStored() throws Exception {
+        assertTrue(LoadTest.run(SHORT_RUN, List.of()));
+    }
+
+    @Test
+    void acknowledgedVotesAreStoredWithWriteBehind() throws Exception {
+        assertTrue(LoadTest.run(SHORT_RUN, List.of("--voting.write-behind.enabled=true")));
+    }
+}
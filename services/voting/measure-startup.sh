@@ -0,0 +1,49 @@
+#!/usr/bin/env sh
+# Measures startup time of the voting service with and without the startup
+# optimizations. Build first with: ./mvnw -Pstartup package -DskipTests
+#
+# Usage: ./measure-startup.sh [runs]
+# Prints the median of "Started VotingApplication in N seconds" per variant.
+set -eu
+
+RUNS=${1:-5}
+cd "$(dirname "$0")/target"
+
+FAT=voting-0.0.1-SNAPSHOT.jar
+THIN=voting-0.0.1-SNAPSHOT-startup.jar
+ARGS="--server.port=0 --catalogue.service-url=http://localhost:9/api/products"
+
+# Training run: refresh the context once, then write the CDS archive on exit
+java -XX:ArchiveClassesAtExit=voting.jsa -Dspring.aot.enabled=true \
+  -Dspring.context.exit=onRefresh -jar $THIN --spring.profiles.active=h2,startup $ARGS > /dev/null
+
+measure() {
+  name=$1
+  shift
+  times=""
+  i=0
+  while [ $i -lt "$RUNS" ]; do
+    log=$(mktemp)
+    "$@" $ARGS > "$log" 2>&1 &
+    pid=$!
+    until grep -q "Started VotingApplication" "$log"; do
+      kill -0 $pid 2> /dev/null || { cat "$log"; exit 1; }
+      sleep 0.1
+    done
+    kill $pid
+    wait $pid 2> /dev/null || true
+    times="$times $(sed -n 's/.*Started VotingApplication in \([0-9.]*\) seconds.*/\1/p' "$log")"
+    rm "$log"
+    i=$((i + 1))
+  done
+  median=$(printf '%s\n' $times | sort -n | sed -n "$(((RUNS + 1) / 2))p")
+  printf '%-28s %6s s   (%s)\n' "$name" "$median" "$(echo $times)"
+}
+
+measure "baseline (h2)"        java -jar $FAT --spring.profiles.active=h2
+measure "h2,startup"           java -jar $FAT --spring.profiles.active=h2,startup
+measure "h2,startup + AOT"     java -Dspring.aot.enabled=true -jar $THIN --spring.profiles.active=h2,startup
+measure "h2,startup + AOT+CDS" java -XX:SharedArchiveFile=voting.jsa -Dspring.aot.enabled=true \
+                                 -jar $THIN --spring.profiles.active=h2,startup
+measure "  + C1 only"              java -XX:TieredStopAtLevel=1 -XX:SharedArchiveFile=voting.jsa -Dspring.aot.enabled=true \
+                                 -jar $THIN --spring.profiles.active=h2,startup
@@ -2,26 +2,44 @@ package com.crafty.voting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
 @SpringBootApplication
 @EnableScheduling
+@EnableCaching
 public class VotingApplication {
     public static void main(String[] args) {
         SpringApplication.run(VotingApplication.class, args);
     }
 }
 
+// The reactive profile keeps JPA scanning away from the reactive repositories, which JPA rejects
 @Configuration
-@Profile({"h2", "default"})
+@Profile({"h2", "default", "reactive"})
 @EnableJpaRepositories(basePackages = "com.crafty.voting.repository.jpa")
 class JpaRepositoriesConfig {}
 
 @Configuration
 @Profile("mongo")
 @EnableMongoRepositories(basePackages = "com.crafty.voting.repository.mongo")
-class MongoRepositoriesConfig {}
\ No newline at end of file
+class MongoRepositoriesConfig {}
+
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackages = "com.crafty.voting.repository.reactive")
+class ReactiveConfig {
+
+    // Tomcat is on the classpath for the servlet stack; serve the reactive stack from Netty's event loops instead
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
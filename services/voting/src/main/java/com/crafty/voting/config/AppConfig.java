@@ -1,16 +1,78 @@
 package com.crafty.voting.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class AppConfig {
 
+    // Pooled HttpClient 5 client; it sends Accept-Encoding and transparently decompresses gzip responses.
+    // Retries are left to OrigamiSynchronizationService so that they feed its circuit breaker.
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(AppProperties appProperties) {
+        AppProperties.Http http = appProperties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(http.getMaxConnections())
+            .setMaxConnPerRoute(http.getMaxConnections())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(http.getConnectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(http.getReadTimeoutMs()))
+                .setTimeToLive(TimeValue.ofMilliseconds(http.getKeepAliveMs()))
+                .build())
+            .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(http.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(http.getReadTimeoutMs()))
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(http.getKeepAliveMs()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(http.getKeepAliveMs()))
+            .disableAutomaticRetries()
+            .build();
+        return new RestTemplate(new DeadlineRequestFactory(httpClient, http.getTotalTimeoutMs()));
+    }
+
+    /**
+     * Cancels every request totalTimeoutMs after it is created, which aborts its connection and fails
+     * a body read in progress with an I/O error. Cancelling a request that already completed does
+     * nothing, since its connection has been handed back to the pool by then.
+     */
+    private static final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final long totalTimeoutMs;
+        private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("catalogue-deadline").daemon().factory());
+
+        DeadlineRequestFactory(CloseableHttpClient httpClient, long totalTimeoutMs) {
+            super(httpClient);
+            this.totalTimeoutMs = totalTimeoutMs;
+        }
+
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            if (request instanceof Cancellable cancellable) {
+                deadlines.schedule(cancellable::cancel, totalTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     // other beans and configurations
-}
\ No newline at end of file
+}
@@ -9,6 +9,12 @@ public class AppProperties {
 
     private String serviceUrl;
 
+    private final Http http = new Http();
+
+    private final Retry retry = new Retry();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
     // Getter and Setter
     public String getServiceUrl() {
         return serviceUrl;
@@ -17,4 +23,142 @@ public class AppProperties {
     public void setServiceUrl(String serviceUrl) {
         this.serviceUrl = serviceUrl;
     }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static class Http {
+
+        private long connectTimeoutMs = 2000;
+
+        // Maximum time to wait for response data once the request is sent
+        private long readTimeoutMs = 10000;
+
+        // Maximum time for a whole request, including reading and parsing the body; the request is cancelled after it
+        private long totalTimeoutMs = 30000;
+
+        // Maximum time to wait for a free pooled connection
+        private long connectionRequestTimeoutMs = 2000;
+
+        private int maxConnections = 10;
+
+        // Idle connections are reused for at most this long, then closed
+        private long keepAliveMs = 30000;
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public long getTotalTimeoutMs() {
+            return totalTimeoutMs;
+        }
+
+        public void setTotalTimeoutMs(long totalTimeoutMs) {
+            this.totalTimeoutMs = totalTimeoutMs;
+        }
+
+        public long getConnectionRequestTimeoutMs() {
+            return connectionRequestTimeoutMs;
+        }
+
+        public void setConnectionRequestTimeoutMs(long connectionRequestTimeoutMs) {
+            this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public long getKeepAliveMs() {
+            return keepAliveMs;
+        }
+
+        public void setKeepAliveMs(long keepAliveMs) {
+            this.keepAliveMs = keepAliveMs;
+        }
+    }
+
+    public static class Retry {
+
+        // Total attempts per sync cycle, including the first one
+        private int maxAttempts = 3;
+
+        private long initialBackoffMs = 200;
+
+        private long maxBackoffMs = 5000;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        // Consecutive failed sync cycles before fetching is suspended
+        private int failureThreshold = 3;
+
+        // How long fetching stays suspended before a single trial cycle is allowed
+        private long openDurationMs = 300000;
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenDurationMs() {
+            return openDurationMs;
+        }
+
+        public void setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+    }
 }
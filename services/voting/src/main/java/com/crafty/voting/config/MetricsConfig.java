@@ -0,0 +1,26 @@
+package com.crafty.voting.config;
+
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Adds a backend tag (jpa, mongo or mongo-reactive) to spring.data.repository.invocations
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+            .and("backend", backend(invocation.getRepositoryInterface().getPackageName()));
+    }
+
+    private static String backend(String repositoryPackage) {
+        if (repositoryPackage.endsWith(".reactive")) {
+            return "mongo-reactive";
+        }
+        return repositoryPackage.endsWith(".mongo") ? "mongo" : "jpa";
+    }
+}
@@ -0,0 +1,341 @@
+package com.crafty.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+@Component
+@ConfigurationProperties(prefix = "voting")
+public class VotingProperties {
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Lease lease = new Lease();
+
+    private final VoteLog voteLog = new VoteLog();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final Dedupe dedupe = new Dedupe();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final ShardedCounters shardedCounters = new ShardedCounters();
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public Lease getLease() {
+        return lease;
+    }
+
+    public VoteLog getVoteLog() {
+        return voteLog;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Dedupe getDedupe() {
+        return dedupe;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public ShardedCounters getShardedCounters() {
+        return shardedCounters;
+    }
+
+    public static class WriteBehind {
+
+        // When enabled, votes are buffered in memory and flushed to the repository in batches
+        private boolean enabled = false;
+
+        private long flushIntervalMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class VoteLog {
+
+        // When enabled together with write-behind, buffered votes are appended to a local log before they are acknowledged
+        private boolean enabled = false;
+
+        private String directory = "vote-log";
+
+        // Each segment file is preallocated and memory-mapped at this size
+        private int segmentSizeBytes = 4 * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+
+        public void setSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+    }
+
+    public static class RateLimit {
+
+        // When enabled, each client may vote at votes-per-second on average, in bursts of up to burst votes
+        private boolean enabled = false;
+
+        private double votesPerSecond = 1;
+
+        private int burst = 10;
+
+        // Header naming the client, e.g. X-Forwarded-For behind a proxy; the remote address is used when unset
+        private String clientHeader;
+
+        // Proxies in front of the service that append to client-header; the entry the outermost one added is the client
+        private int trustedProxies = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getVotesPerSecond() {
+            return votesPerSecond;
+        }
+
+        public void setVotesPerSecond(double votesPerSecond) {
+            this.votesPerSecond = votesPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(int trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        public void setClientHeader(String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+    }
+
+    public static class Dedupe {
+
+        // When enabled, a client's repeat vote for the same origami within one to two windows is rejected
+        private boolean enabled = false;
+
+        private long windowMs = 3600000;
+
+        // Sizes each window's Bloom filter; beyond this many distinct votes the false positive rate climbs
+        private int expectedVotes = 1000000;
+
+        private double falsePositiveRate = 0.001;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMs() {
+            return windowMs;
+        }
+
+        public void setWindowMs(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        public int getExpectedVotes() {
+            return expectedVotes;
+        }
+
+        public void setExpectedVotes(int expectedVotes) {
+            this.expectedVotes = expectedVotes;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+
+    public static class Idempotency {
+
+        // When enabled, a vote sent again with the same Idempotency-Key header gets the original response
+        private boolean enabled = true;
+
+        // Keys are remembered this long after the vote, and at most max-keys of them per replica
+        private long ttlMs = 86400000;
+
+        private int maxKeys = 100000;
+
+        // When enabled, keys are also stored in the repository and shared by all replicas
+        private boolean persist = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public boolean isPersist() {
+            return persist;
+        }
+
+        public void setPersist(boolean persist) {
+            this.persist = persist;
+        }
+    }
+
+    public static class ShardedCounters {
+
+        // When enabled, single votes for hot origamis are spread over sub-counters instead of one row
+        private boolean enabled = false;
+
+        // An origami's shard count doubles while each shard takes more votes per second than this, and halves below a quarter of it
+        private int votesPerShardPerSecond = 100;
+
+        private int maxShards = 16;
+
+        // Reads of a sharded origami reuse its summed total for this long
+        private long sumCacheMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getVotesPerShardPerSecond() {
+            return votesPerShardPerSecond;
+        }
+
+        public void setVotesPerShardPerSecond(int votesPerShardPerSecond) {
+            this.votesPerShardPerSecond = votesPerShardPerSecond;
+        }
+
+        public int getMaxShards() {
+            return maxShards;
+        }
+
+        public void setMaxShards(int maxShards) {
+            this.maxShards = maxShards;
+        }
+
+        public long getSumCacheMs() {
+            return sumCacheMs;
+        }
+
+        public void setSumCacheMs(long sumCacheMs) {
+            this.sumCacheMs = sumCacheMs;
+        }
+    }
+
+    public static class Lease {
+
+        // Must be longer than the interval of the job holding the lease, or the holder loses it between runs
+        private long ttlMs = 90000;
+
+        // Identifies this replica as a lease holder; defaults to the host name plus a random suffix
+        private String owner = defaultOwner();
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public void setOwner(String owner) {
+            this.owner = owner;
+        }
+
+        private static String defaultOwner() {
+            String suffix = UUID.randomUUID().toString().substring(0, 8);
+            try {
+                return InetAddress.getLocalHost().getHostName() + "-" + suffix;
+            } catch (UnknownHostException e) {
+                return suffix;
+            }
+        }
+    }
+}
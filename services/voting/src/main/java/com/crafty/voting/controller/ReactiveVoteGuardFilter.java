@@ -0,0 +1,82 @@
+package com.crafty.voting.controller;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.service.IdempotencyKeys;
+import com.crafty.voting.service.VoteGuard;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+
+// Reactive counterpart of VoteGuardFilter; the checks do not block, so they run on the event loop
+@Component
+@Profile("reactive")
+public class ReactiveVoteGuardFilter implements WebFilter {
+
+    private final VoteGuard voteGuard;
+    private final IdempotencyKeys idempotencyKeys;
+    private final String clientHeader;
+    private final int trustedProxies;
+
+    public ReactiveVoteGuardFilter(VoteGuard voteGuard, IdempotencyKeys idempotencyKeys, VotingProperties votingProperties) {
+        this.voteGuard = voteGuard;
+        this.idempotencyKeys = idempotencyKeys;
+        this.clientHeader = votingProperties.getRateLimit().getClientHeader();
+        this.trustedProxies = votingProperties.getRateLimit().getTrustedProxies();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!voteGuard.isEnabled() || request.getMethod() != HttpMethod.POST) {
+            return chain.filter(exchange);
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        String origamiId = VoteGuardFilter.origamiId(path);
+        boolean batch = VoteGuardFilter.BATCH_PATH.equals(path);
+        if (batch ? !voteGuard.isRateLimited()
+                : origamiId == null || VoteGuardFilter.isRetry(idempotencyKeys, request.getHeaders().getFirst(IdempotencyKeys.HEADER))) {
+            return chain.filter(exchange);
+        }
+        String header = clientHeader == null ? null
+            : VoteGuardFilter.clientId(request.getHeaders().getFirst(clientHeader), trustedProxies);
+        String client;
+        if (header != null) {
+            client = header;
+        } else {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            client = remoteAddress == null ? "" : remoteAddress.getHostString();
+        }
+        switch (batch ? voteGuard.checkBatch(client) : voteGuard.check(client, origamiId)) {
+            case RATE_LIMITED -> {
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(voteGuard.retryAfterSeconds()));
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return exchange.getResponse().setComplete();
+            }
+            case DUPLICATE -> {
+                exchange.getResponse().setStatusCode(HttpStatus.CONFLICT);
+                return exchange.getResponse().setComplete();
+            }
+            default -> {
+                if (batch) {
+                    return chain.filter(exchange);
+                }
+                return chain.filter(exchange).doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    voteGuard.complete(client, origamiId,
+                        signal == SignalType.ON_COMPLETE && status != null && status.is2xxSuccessful());
+                });
+            }
+        }
+    }
+}
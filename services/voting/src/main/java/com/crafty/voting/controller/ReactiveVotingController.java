@@ -0,0 +1,198 @@
+package com.crafty.voting.controller;
+
+import com.crafty.voting.model.BatchVoteResult;
+import com.crafty.voting.model.IdempotencyKey;
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.TrendingOrigami;
+import com.crafty.voting.model.VoteDelta;
+import com.crafty.voting.model.VoteUpdate;
+import com.crafty.voting.service.IdempotencyKeys;
+import com.crafty.voting.service.ReactiveOrigamiService;
+import com.crafty.voting.service.VoteHistory;
+import com.crafty.voting.service.VoteUpdateBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// Same contract as VotingController, served by WebFlux and reactive MongoDB when the reactive profile is active
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/origamis")
+public class ReactiveVotingController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    @Autowired
+    private ReactiveOrigamiService origamiService;
+
+    @Autowired
+    private VoteUpdateBroadcaster voteUpdateBroadcaster;
+
+    @Autowired
+    private IdempotencyKeys idempotencyKeys;
+
+    // Without a limit the full list is returned, as before pagination was introduced
+    @GetMapping
+    public Mono<ResponseEntity<List<Origami>>> getAllOrigamis(@RequestParam(required = false) Long after,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              @RequestParam(defaultValue = "id") String sort) {
+        boolean sortByVotes = "votes".equalsIgnoreCase(sort);
+        if (!sortByVotes && !"id".equalsIgnoreCase(sort)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (limit == null && after == null && !sortByVotes) {
+            return origamiService.getAllOrigamis().collectList().map(ResponseEntity::ok);
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return origamiService.getOrigamiPage(after, pageSize, sortByVotes).collectList().map(ResponseEntity::ok);
+    }
+
+    // Newline-delimited JSON pulled from the Mongo cursor only as fast as the client reads it
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Origami> streamOrigamis() {
+        return origamiService.getAllOrigamis();
+    }
+
+    @GetMapping("/leaderboard")
+    public Mono<ResponseEntity<List<Origami>>> getLeaderboard(@RequestParam(defaultValue = "10") int k) {
+        if (k <= 0 || k > MAX_LEADERBOARD_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return origamiService.getLeaderboard(k).collectList()
+            .map(ResponseEntity::ok)
+            .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+
+    @GetMapping("/trending")
+    public Mono<ResponseEntity<List<TrendingOrigami>>> getTrending(@RequestParam(defaultValue = "1h") String window,
+                                                                   @RequestParam(defaultValue = "10") int k) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(VoteHistory.MAX_WINDOW) > 0
+                || k <= 0 || k > MAX_LEADERBOARD_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        String scope = VoteHistory.scope(duration).name().toLowerCase();
+        return origamiService.getTrending(duration, k).collectList()
+            .map(trending -> ResponseEntity.ok().header(VotingController.TRENDING_SCOPE_HEADER, scope).body(trending));
+    }
+
+    @GetMapping("/{origamiId}")
+    public Mono<ResponseEntity<Origami>> getOrigami(@PathVariable String origamiId) {
+        return origamiService.getOrigamiById(origamiId)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+
+    @GetMapping("/{origamiId}/votes")
+    public Mono<ResponseEntity<Long>> getVotes(@PathVariable String origamiId) {
+        return origamiService.getVotes(origamiId)
+            .map(ResponseEntity::ok)
+            .onErrorReturn(ResponseEntity.status(500).build());
+    }
+
+    @GetMapping(value = "/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<VoteUpdate>> streamAllVotes() {
+        return voteUpdates(null);
+    }
+
+    @GetMapping(value = "/{origamiId}/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<VoteUpdate>>>> streamVotes(@PathVariable String origamiId) {
+        return origamiService.getOrigamiById(origamiId)
+            .map(origami -> ResponseEntity.ok(
+                // Start with the current count so clients do not wait for the next change
+                Flux.just(event(new VoteUpdate(origami.getOrigamiId(), origami.getVotes())))
+                    .concatWith(voteUpdates(origami.getOrigamiId()))))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Flux<ServerSentEvent<VoteUpdate>> voteUpdates(Long origamiId) {
+        // Slow clients only ever receive the latest count
+        return Flux.<VoteUpdate>create(sink -> {
+            Runnable unsubscribe = voteUpdateBroadcaster.subscribe(origamiId, sink::next);
+            sink.onDispose(unsubscribe::run);
+        }, FluxSink.OverflowStrategy.LATEST).map(this::event);
+    }
+
+    private ServerSentEvent<VoteUpdate> event(VoteUpdate update) {
+        return ServerSentEvent.builder(update).event("votes").build();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Origami>> addOrigami(@RequestBody Origami origami) {
+        return origamiService.saveOrUpdateOrigami(origami)
+            .map(ResponseEntity::ok)
+            .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+
+    // With an Idempotency-Key, a retry gets the response of the first attempt instead of voting again
+    @PostMapping("/{origamiId}/vote")
+    public Mono<ResponseEntity<Origami>> voteForOrigami(@PathVariable String origamiId,
+                                                        @RequestHeader(name = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || !idempotencyKeys.isEnabled()) {
+            return vote(origamiId);
+        }
+        if (!IdempotencyKeys.isValid(idempotencyKey)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Mono<Optional<IdempotencyKey>> earlier = offEventLoop(
+            Mono.fromCallable(() -> Optional.ofNullable(idempotencyKeys.begin(idempotencyKey, origamiId))));
+        return earlier.flatMap(key -> key.isPresent()
+            ? Mono.just(VotingController.replay(key.get(), origamiId))
+            : vote(origamiId).flatMap(response -> offEventLoop(Mono.fromRunnable(() -> idempotencyKeys.finish(
+                idempotencyKey, origamiId, response.getStatusCode().value(), response.getBody()))).thenReturn(response)));
+    }
+
+    // Persisted idempotency keys go through the blocking MongoTemplate
+    private <T> Mono<T> offEventLoop(Mono<T> mono) {
+        return idempotencyKeys.isPersistent() ? mono.subscribeOn(Schedulers.boundedElastic()) : mono;
+    }
+
+    private Mono<ResponseEntity<Origami>> vote(String origamiId) {
+        return origamiService.recordVote(origamiId)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+
+    @PostMapping("/votes:batch")
+    public Mono<ResponseEntity<BatchVoteResult>> voteBatch(@RequestBody List<VoteDelta> votes) {
+        if (!VotingController.isValidBatch(votes)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return origamiService.recordVotes(votes)
+            .map(ResponseEntity::ok)
+            .onErrorReturn(ArithmeticException.class, ResponseEntity.badRequest().build())
+            .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+
+    @GetMapping("/status")
+    public Mono<ResponseEntity<String>> getVotingServiceStatus() {
+        return origamiService.count()
+            .map(count -> ResponseEntity.ok("{\"status\":\"up\",\"message\":\"Voting Service is Online\"}"))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(503)
+                .body("{\"status\":\"down\",\"message\":\"Service unavailable: " + e.getMessage() + "\"}")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.crafty.voting.controller;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.service.IdempotencyKeys;
+import com.crafty.voting.service.VoteGuard;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Applies VoteGuard to POST /api/origamis/{origamiId}/vote: 429 when rate limited, 409 for a repeat vote.
+// Retries with an Idempotency-Key this replica has seen pass through and get the original response.
+// POST /api/origamis/votes:batch is rate limited only.
+@Component
+@Profile("!reactive")
+public class VoteGuardFilter extends OncePerRequestFilter {
+
+    static final String VOTE_PATH_PREFIX = "/api/origamis/";
+    static final String VOTE_PATH_SUFFIX = "/vote";
+    static final String BATCH_PATH = "/api/origamis/votes:batch";
+
+    private final VoteGuard voteGuard;
+    private final IdempotencyKeys idempotencyKeys;
+    private final String clientHeader;
+    private final int trustedProxies;
+
+    public VoteGuardFilter(VoteGuard voteGuard, IdempotencyKeys idempotencyKeys, VotingProperties votingProperties) {
+        this.voteGuard = voteGuard;
+        this.idempotencyKeys = idempotencyKeys;
+        this.clientHeader = votingProperties.getRateLimit().getClientHeader();
+        this.trustedProxies = votingProperties.getRateLimit().getTrustedProxies();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!voteGuard.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        if (BATCH_PATH.equals(path)) {
+            return !voteGuard.isRateLimited();
+        }
+        return origamiId(path) == null || isRetry(idempotencyKeys, request.getHeader(IdempotencyKeys.HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = clientHeader == null ? null : clientId(request.getHeader(clientHeader), trustedProxies);
+        String client = header != null ? header : request.getRemoteAddr();
+        String origamiId = origamiId(path(request));
+        switch (origamiId == null ? voteGuard.checkBatch(client) : voteGuard.check(client, origamiId)) {
+            case RATE_LIMITED -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(voteGuard.retryAfterSeconds()));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            }
+            case DUPLICATE -> response.setStatus(HttpStatus.CONFLICT.value());
+            case ACCEPTED -> {
+                if (origamiId == null) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                boolean counted = false;
+                try {
+                    chain.doFilter(request, response);
+                    counted = HttpStatus.valueOf(response.getStatus()).is2xxSuccessful();
+                } finally {
+                    voteGuard.complete(client, origamiId, counted);
+                }
+            }
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // The origami ID of a vote path, or null for any other path. Numeric IDs lose their leading zeros,
+    // which the service ignores, so "7" and "007" share one dedupe entry instead of counting twice.
+    static String origamiId(String path) {
+        if (!path.startsWith(VOTE_PATH_PREFIX) || !path.endsWith(VOTE_PATH_SUFFIX)) {
+            return null;
+        }
+        String origamiId = path.substring(VOTE_PATH_PREFIX.length(), path.length() - VOTE_PATH_SUFFIX.length());
+        if (origamiId.isEmpty() || origamiId.indexOf('/') >= 0) {
+            return null;
+        }
+        int start = 0;
+        while (start < origamiId.length() - 1 && origamiId.charAt(start) == '0') {
+            start++;
+        }
+        for (int i = start; i < origamiId.length(); i++) {
+            char c = origamiId.charAt(i);
+            if (c < '0' || c > '9') {
+                return origamiId;
+            }
+        }
+        return origamiId.substring(start);
+    }
+
+    static boolean isRetry(IdempotencyKeys idempotencyKeys, String idempotencyKey) {
+        return idempotencyKey != null && idempotencyKeys.isEnabled() && idempotencyKeys.isKnown(idempotencyKey);
+    }
+
+    // The entry of a header such as X-Forwarded-For that the outermost of the trusted proxies appended. Entries
+    // to its left come from the client, which can send any value, so they would give it a fresh identity per request.
+    static String clientId(String headerValue, int trustedProxies) {
+        if (!StringUtils.hasText(headerValue)) {
+            return null;
+        }
+        String[] entries = headerValue.split(",");
+        String client = entries[Math.max(0, entries.length - Math.max(1, trustedProxies))].trim();
+        return client.isEmpty() ? null : client;
+    }
+}
@@ -1,28 +1,136 @@
 package com.crafty.voting.controller;
 
+import com.crafty.voting.service.IdempotencyKeys;
 import com.crafty.voting.service.OrigamiService;
+import com.crafty.voting.service.OrigamiStore;
+import com.crafty.voting.service.VoteHistory;
+import com.crafty.voting.service.VoteUpdateBroadcaster;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.crafty.voting.model.BatchVoteResult;
+import com.crafty.voting.model.IdempotencyKey;
 import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.TrendingOrigami;
+import com.crafty.voting.model.VoteDelta;
+import com.crafty.voting.model.VoteUpdate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import com.crafty.voting.repository.jpa.OrigamiRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/origamis")
 public class VotingController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    // Bound what one batch can add, so a request cannot inflate a count by billions or overflow a merged delta
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_VOTE_DELTA = 1000;
+    // "replica" when a trending window only counts this replica's votes, "cluster" when it counts every replica's
+    static final String TRENDING_SCOPE_HEADER = "X-Trending-Scope";
+    private static final long VOTE_STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
-    OrigamiRepository origamiRepository;
+    private OrigamiStore origamiStore;
 
     @Autowired
     private OrigamiService origamiService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VoteUpdateBroadcaster voteUpdateBroadcaster;
+
+    @Autowired
+    private IdempotencyKeys idempotencyKeys;
+
+    // Without a limit the full list is returned, as before pagination was introduced
     @GetMapping
-    public List<Origami> getAllOrigamis() {
-        return origamiRepository.findAll();
+    public ResponseEntity<List<Origami>> getAllOrigamis(@RequestParam(required = false) Long after,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        @RequestParam(defaultValue = "id") String sort) {
+        boolean sortByVotes = "votes".equalsIgnoreCase(sort);
+        if (!sortByVotes && !"id".equalsIgnoreCase(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit == null && after == null && !sortByVotes) {
+            return ResponseEntity.ok(origamiService.getAllOrigamis());
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(origamiService.getOrigamiPage(after, pageSize, sortByVotes));
+    }
+
+    // Newline-delimited JSON, written row by row as the repository cursor advances
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamOrigamis() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                origamiService.forEachOrigami(origami -> writeLine(outputStream, origami));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Origami origami) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(origami));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<Origami>> getLeaderboard(@RequestParam(defaultValue = "10") int k) {
+        if (k <= 0 || k > MAX_LEADERBOARD_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(origamiService.getLeaderboard(k));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Window such as 15m, 6h or 7d; up to an hour it is counted by the minute on this replica only,
+    // beyond that by the hour across replicas, which the trending-scope header reports
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingOrigami>> getTrending(@RequestParam(defaultValue = "1h") String window,
+                                                             @RequestParam(defaultValue = "10") int k) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(VoteHistory.MAX_WINDOW) > 0
+                || k <= 0 || k > MAX_LEADERBOARD_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+            .header(TRENDING_SCOPE_HEADER, VoteHistory.scope(duration).name().toLowerCase())
+            .body(origamiService.getTrending(duration, k));
     }
 
     @GetMapping("/{origamiId}")
@@ -37,9 +145,9 @@ public class VotingController {
     }
 
     @GetMapping("/{origamiId}/votes")
-    public ResponseEntity<Integer> getVotes(@PathVariable String origamiId) {
+    public ResponseEntity<Long> getVotes(@PathVariable String origamiId) {
         try {
-            int votes = origamiService.getVotes(origamiId);
+            long votes = origamiService.getVotes(origamiId);
             return ResponseEntity.ok(votes);
         } catch (Exception e) {
             // Log error and return a suitable error response if needed.
@@ -47,6 +155,41 @@ public class VotingController {
         }
     }
 
+    // Server-Sent Events with the vote count of every origami that changed, coalesced per push interval
+    @GetMapping(value = "/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllVotes() {
+        return subscribeToVotes(null);
+    }
+
+    @GetMapping(value = "/{origamiId}/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamVotes(@PathVariable String origamiId) {
+        Optional<Origami> origami = origamiService.getOrigamiById(origamiId);
+        if (origami.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = subscribeToVotes(origami.get().getOrigamiId());
+        // Start with the current count so clients do not wait for the next change
+        send(emitter, new VoteUpdate(origami.get().getOrigamiId(), origami.get().getVotes()));
+        return ResponseEntity.ok(emitter);
+    }
+
+    private SseEmitter subscribeToVotes(Long origamiId) {
+        SseEmitter emitter = new SseEmitter(VOTE_STREAM_TIMEOUT_MS);
+        Runnable unsubscribe = voteUpdateBroadcaster.subscribe(origamiId, update -> send(emitter, update), emitter::complete);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, VoteUpdate update) {
+        try {
+            emitter.send(SseEmitter.event().name("votes").data(update, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Origami> addOrigami(@RequestBody Origami origami) {
         try {
@@ -57,13 +200,29 @@ public class VotingController {
         }
     }
 
+    // With an Idempotency-Key, a retry gets the response of the first attempt instead of voting again
     @PostMapping("/{origamiId}/vote")
-    public ResponseEntity<Origami> voteForOrigami(@PathVariable String origamiId) {
+    public ResponseEntity<Origami> voteForOrigami(@PathVariable String origamiId,
+                                                  @RequestHeader(name = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || !idempotencyKeys.isEnabled()) {
+            return vote(origamiId);
+        }
+        if (!IdempotencyKeys.isValid(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        IdempotencyKey earlier = idempotencyKeys.begin(idempotencyKey, origamiId);
+        if (earlier != null) {
+            return replay(earlier, origamiId);
+        }
+        ResponseEntity<Origami> response = vote(origamiId);
+        idempotencyKeys.finish(idempotencyKey, origamiId, response.getStatusCode().value(), response.getBody());
+        return response;
+    }
+
+    private ResponseEntity<Origami> vote(String origamiId) {
         try {
-            Origami origami = origamiService.getOrigamiById(origamiId)
+            Origami updatedOrigami = origamiService.recordVote(origamiId)
                 .orElseThrow(() -> new RuntimeException("Origami Not Found"));
-            origami.setVotes(origami.getVotes() + 1);
-            Origami updatedOrigami = origamiService.saveOrUpdateOrigami(origami);
             return ResponseEntity.ok(updatedOrigami);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Origami Not Found")) {
@@ -75,11 +234,56 @@ public class VotingController {
         }
     }
 
+    // The response to a vote already made with the same Idempotency-Key
+    static ResponseEntity<Origami> replay(IdempotencyKey earlier, String origamiId) {
+        if (!earlier.getOrigamiId().equals(origamiId)) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        if (earlier.isInProgress()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (earlier.getStatus() != HttpStatus.OK.value()) {
+            return ResponseEntity.status(earlier.getStatus()).build();
+        }
+        Origami origami = new Origami();
+        origami.setOrigamiId(Long.valueOf(origamiId));
+        origami.setName(earlier.getName());
+        origami.setVotes(earlier.getVotes());
+        return ResponseEntity.ok(origami);
+    }
+
+    @PostMapping("/votes:batch")
+    public ResponseEntity<BatchVoteResult> voteBatch(@RequestBody List<VoteDelta> votes) {
+        if (!isValidBatch(votes)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(origamiService.recordVotes(votes));
+        } catch (ArithmeticException e) {
+            // Deltas for one origami summed past an int
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    static boolean isValidBatch(List<VoteDelta> votes) {
+        if (votes == null || votes.size() > MAX_BATCH_SIZE) {
+            return false;
+        }
+        for (VoteDelta vote : votes) {
+            if (vote.getOrigamiId() == null || vote.getDelta() <= 0 || vote.getDelta() > MAX_VOTE_DELTA) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @GetMapping("/status")
     public ResponseEntity<String> getVotingServiceStatus() {
         try {
             // Check if we can access the database and synchronization is working
-            long origamiCount = origamiRepository.count();
+            long origamiCount = origamiStore.count();
             if (origamiCount >= 0) { // Basic check that database is accessible
                 return ResponseEntity.ok("{\"status\":\"up\",\"message\":\"Voting Service is Online\"}");
             } else {
@@ -1,13 +0,0 @@
-package com.crafty.voting.controller;
-
-import org.springframework.stereotype.Controller;
-import org.springframework.web.bind.annotation.GetMapping;
-
-@Controller
-public class WelcomeController {
-
-    @GetMapping("/")
-    public String welcome() {
-        return "welcome";
-    }
-}
@@ -0,0 +1,26 @@
+package com.crafty.voting.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class BatchVoteResult {
+    @JsonProperty("accepted")
+    private long accepted;
+
+    @JsonProperty("unknown")
+    private List<String> unknown;
+
+    public BatchVoteResult() {}
+
+    public BatchVoteResult(long accepted, List<String> unknown) {
+        this.accepted = accepted;
+        this.unknown = unknown;
+    }
+
+    public long getAccepted() { return accepted; }
+    public void setAccepted(long accepted) { this.accepted = accepted; }
+
+    public List<String> getUnknown() { return unknown; }
+    public void setUnknown(List<String> unknown) { this.unknown = unknown; }
+}
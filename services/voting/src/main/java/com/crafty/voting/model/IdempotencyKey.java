@@ -0,0 +1,57 @@
+package com.crafty.voting.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+// The outcome of a vote sent with an Idempotency-Key, kept until expiresAt (epoch millis); status is 0 while the vote is in progress
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_key_expiry", columnList = "expiresAt"))
+public class IdempotencyKey {
+    public static final int IN_PROGRESS = 0;
+
+    @Id
+    private String id;
+
+    private String origamiId;
+
+    private int status;
+
+    private String name;
+
+    private long votes;
+
+    @Indexed
+    private long expiresAt;
+
+    public static IdempotencyKey inProgress(String id, String origamiId, long expiresAt) {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setId(id);
+        key.setOrigamiId(origamiId);
+        key.setStatus(IN_PROGRESS);
+        key.setExpiresAt(expiresAt);
+        return key;
+    }
+
+    public boolean isInProgress() { return status == IN_PROGRESS; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOrigamiId() { return origamiId; }
+    public void setOrigamiId(String origamiId) { this.origamiId = origamiId; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+}
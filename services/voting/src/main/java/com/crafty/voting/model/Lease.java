@@ -0,0 +1,24 @@
+package com.crafty.voting.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+// A named lock held by one replica until expiresAt (epoch millis) unless its owner renews it
+@Entity
+public class Lease {
+    @Id
+    private String id;
+
+    private String owner;
+
+    private long expiresAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -4,20 +4,29 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.springframework.data.mongodb.core.index.Indexed;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
+@Table(indexes = @Index(name = "idx_origami_votes", columnList = "votes"))
 public class Origami {
+    // Catalogue origamis keep their catalogue IDs. Others draw from a pooled sequence, which unlike
+    // IDENTITY lets Hibernate batch their inserts, starting well above the catalogue's IDs.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "origami_seq")
+    @SequenceGenerator(name = "origami_seq", sequenceName = "origami_seq", initialValue = 1000000000, allocationSize = 50)
     @JsonProperty("origamiId")
     private Long origamiId;
 
     @JsonProperty("name")
     private String name;
 
+    @Indexed
     @JsonProperty("votes")
-    private int votes;
+    private long votes;
 
     public Long getOrigamiId() { return origamiId; }
     public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
@@ -25,6 +34,6 @@ public class Origami {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    public int getVotes() { return votes; }
-    public void setVotes(int votes) { this.votes = votes; }
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
 }
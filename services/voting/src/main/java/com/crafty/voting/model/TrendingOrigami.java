@@ -0,0 +1,39 @@
+package com.crafty.voting.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TrendingOrigami {
+    @JsonProperty("origamiId")
+    private Long origamiId;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("votes")
+    private long votes;
+
+    // Votes received within the requested window
+    @JsonProperty("recentVotes")
+    private long recentVotes;
+
+    public TrendingOrigami() {}
+
+    public TrendingOrigami(Origami origami, long recentVotes) {
+        this.origamiId = origami.getOrigamiId();
+        this.name = origami.getName();
+        this.votes = origami.getVotes();
+        this.recentVotes = recentVotes;
+    }
+
+    public Long getOrigamiId() { return origamiId; }
+    public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
+
+    public long getRecentVotes() { return recentVotes; }
+    public void setRecentVotes(long recentVotes) { this.recentVotes = recentVotes; }
+}
@@ -0,0 +1,38 @@
+package com.crafty.voting.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+// Votes one origami received during one hour (hours since the epoch, UTC); the ID is "<origamiId>:<epochHour>"
+@Entity
+@Table(indexes = @Index(name = "idx_vote_bucket_hour", columnList = "epochHour"))
+public class VoteBucket {
+    @Id
+    private String id;
+
+    private Long origamiId;
+
+    @Indexed
+    private long epochHour;
+
+    private long votes;
+
+    public static String id(long origamiId, long epochHour) {
+        return origamiId + ":" + epochHour;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getOrigamiId() { return origamiId; }
+    public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
+
+    public long getEpochHour() { return epochHour; }
+    public void setEpochHour(long epochHour) { this.epochHour = epochHour; }
+
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
+}
@@ -0,0 +1,24 @@
+package com.crafty.voting.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class VoteDelta {
+    @JsonProperty("origamiId")
+    private String origamiId;
+
+    @JsonProperty("delta")
+    private int delta;
+
+    public VoteDelta() {}
+
+    public VoteDelta(String origamiId, int delta) {
+        this.origamiId = origamiId;
+        this.delta = delta;
+    }
+
+    public String getOrigamiId() { return origamiId; }
+    public void setOrigamiId(String origamiId) { this.origamiId = origamiId; }
+
+    public int getDelta() { return delta; }
+    public void setDelta(int delta) { this.delta = delta; }
+}
@@ -0,0 +1,36 @@
+package com.crafty.voting.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// The first segment of one vote log not yet flushed for one origami; the ID is "<logId>:<origamiId>"
+@Entity
+@Table(indexes = @Index(name = "idx_vote_log_checkpoint_log", columnList = "logId"))
+public class VoteLogCheckpoint {
+    @Id
+    private String id;
+
+    private String logId;
+
+    private Long origamiId;
+
+    private long flushedBefore;
+
+    public static String id(String logId, long origamiId) {
+        return logId + ":" + origamiId;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getLogId() { return logId; }
+    public void setLogId(String logId) { this.logId = logId; }
+
+    public Long getOrigamiId() { return origamiId; }
+    public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
+
+    public long getFlushedBefore() { return flushedBefore; }
+    public void setFlushedBefore(long flushedBefore) { this.flushedBefore = flushedBefore; }
+}
@@ -0,0 +1,38 @@
+package com.crafty.voting.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+// Votes taken by one sub-counter of a hot origami and not yet folded into it; the ID is "<origamiId>:<shard>"
+@Entity
+@Table(indexes = @Index(name = "idx_vote_shard_origami", columnList = "origamiId"))
+public class VoteShard {
+    @Id
+    private String id;
+
+    @Indexed
+    private Long origamiId;
+
+    private int shard;
+
+    private long votes;
+
+    public static String id(long origamiId, int shard) {
+        return origamiId + ":" + shard;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getOrigamiId() { return origamiId; }
+    public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
+}
@@ -0,0 +1,24 @@
+package com.crafty.voting.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class VoteUpdate {
+    @JsonProperty("origamiId")
+    private Long origamiId;
+
+    @JsonProperty("votes")
+    private long votes;
+
+    public VoteUpdate() {}
+
+    public VoteUpdate(Long origamiId, long votes) {
+        this.origamiId = origamiId;
+        this.votes = votes;
+    }
+
+    public Long getOrigamiId() { return origamiId; }
+    public void setOrigamiId(Long origamiId) { this.origamiId = origamiId; }
+
+    public long getVotes() { return votes; }
+    public void setVotes(long votes) { this.votes = votes; }
+}
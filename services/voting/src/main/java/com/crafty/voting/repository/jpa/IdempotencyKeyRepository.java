@@ -0,0 +1,39 @@
+package com.crafty.voting.repository.jpa;
+
+import com.crafty.voting.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // A plain insert, so a key claimed concurrently by another replica fails on the primary key instead of being merged over
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_key (id, origami_id, status, votes, expires_at) values (:id, :origamiId, 0, 0, :expiresAt)", nativeQuery = true)
+    void insert(@Param("id") String id, @Param("origamiId") String origamiId, @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update IdempotencyKey k set k.origamiId = :origamiId, k.status = 0, k.name = null, k.votes = 0, k.expiresAt = :expiresAt where k.id = :id and k.expiresAt < :now")
+    int takeOverExpired(@Param("id") String id, @Param("origamiId") String origamiId, @Param("now") long now,
+                        @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update IdempotencyKey k set k.status = :status, k.name = :name, k.votes = :votes, k.expiresAt = :expiresAt where k.id = :id")
+    int complete(@Param("id") String id, @Param("status") int status, @Param("name") String name,
+                 @Param("votes") long votes, @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from IdempotencyKey k where k.id = :id and k.status = 0")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") long now);
+}
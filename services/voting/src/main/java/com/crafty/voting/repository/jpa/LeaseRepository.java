@@ -0,0 +1,29 @@
+package com.crafty.voting.repository.jpa;
+
+import com.crafty.voting.model.Lease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface LeaseRepository extends JpaRepository<Lease, String> {
+
+    // Renews a lease the owner already holds, or takes over one that has expired
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Lease l set l.owner = :owner, l.expiresAt = :expiresAt where l.id = :id and (l.owner = :owner or l.expiresAt < :now)")
+    int renewOrTakeOver(@Param("id") String id, @Param("owner") String owner, @Param("now") long now,
+                        @Param("expiresAt") long expiresAt);
+
+    // A plain insert, so a concurrent claim fails on the primary key instead of being merged over
+    @Transactional
+    @Modifying
+    @Query(value = "insert into lease (id, owner, expires_at) values (:id, :owner, :expiresAt)", nativeQuery = true)
+    void insert(@Param("id") String id, @Param("owner") String owner, @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Lease l where l.id = :id and l.owner = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+}
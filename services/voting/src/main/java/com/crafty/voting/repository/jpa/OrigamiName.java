@@ -0,0 +1,7 @@
+package com.crafty.voting.repository.jpa;
+
+// Projection used by catalogue synchronization to diff names without loading vote counts
+public interface OrigamiName {
+    Long getOrigamiId();
+    String getName();
+}
@@ -1,7 +1,41 @@
 package com.crafty.voting.repository.jpa;
 
 import com.crafty.voting.model.Origami;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrigamiRepository extends JpaRepository<Origami, Long> {
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface OrigamiRepository extends JpaRepository<Origami, Long>, OrigamiRepositoryCustom {
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Origami o set o.votes = o.votes + :delta where o.origamiId = :id")
+    int incrementVotes(@Param("id") Long id, @Param("delta") long delta);
+
+    @Query("select o.origamiId as origamiId, o.name as name from Origami o")
+    List<OrigamiName> findAllNames();
+
+    // Keyset pages ordered by ID
+    List<Origami> findByOrigamiIdGreaterThanOrderByOrigamiIdAsc(Long after, Pageable pageable);
+
+    // Keyset pages ordered by votes, with the ID as tie-breaker
+    @Query("select o from Origami o order by o.votes desc, o.origamiId asc")
+    List<Origami> findTopByVotes(Pageable pageable);
+
+    @Query("select o from Origami o where o.votes < :votes or (o.votes = :votes and o.origamiId > :id) order by o.votes desc, o.origamiId asc")
+    List<Origami> findByVotesAfter(@Param("votes") long votes, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select o from Origami o order by o.origamiId")
+    Stream<Origami> streamAll();
 }
@@ -0,0 +1,23 @@
+package com.crafty.voting.repository.jpa;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface OrigamiRepositoryCustom {
+
+    // Applies all vote deltas in one JDBC batch and returns the IDs that matched a row
+    Set<Long> incrementVotesBatch(Map<Long, Integer> deltas);
+
+    // Adds votes to a vote_shard row, creating it on first use
+    void incrementShard(long origamiId, int shard, int delta);
+
+    // Origami votes plus its unfolded vote_shard rows, read in one statement
+    Optional<Long> totalVotes(long origamiId);
+
+    // Locks the non-zero vote_shard rows, adds them to their origamis and subtracts them, in one transaction
+    Set<Long> foldShards();
+
+    // Inserts missing origamis with no votes and renames existing ones, in one JDBC batch
+    void upsertNames(Map<Long, String> names);
+}
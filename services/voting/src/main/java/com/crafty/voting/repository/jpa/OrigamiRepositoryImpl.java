@@ -0,0 +1,102 @@
+package com.crafty.voting.repository.jpa;
+
+import com.crafty.voting.model.VoteShard;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class OrigamiRepositoryImpl implements OrigamiRepositoryCustom {
+
+    private static final String INCREMENT_VOTES_SQL = "UPDATE origami SET votes = votes + ? WHERE origami_id = ?";
+    // Standard SQL MERGE, so the catalogue IDs are kept and a renamed origami keeps its votes
+    private static final String UPSERT_NAME_SQL = "MERGE INTO origami o"
+        + " USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)))) AS c (origami_id, name)"
+        + " ON o.origami_id = c.origami_id"
+        + " WHEN MATCHED THEN UPDATE SET name = c.name"
+        + " WHEN NOT MATCHED THEN INSERT (origami_id, name, votes) VALUES (c.origami_id, c.name, 0)";
+
+    private static final String INCREMENT_SHARD_SQL = "UPDATE vote_shard SET votes = votes + ? WHERE id = ?";
+    private static final String INSERT_SHARD_SQL = "INSERT INTO vote_shard (id, origami_id, shard, votes) VALUES (?, ?, ?, ?)";
+    private static final String TOTAL_VOTES_SQL = "SELECT o.votes + COALESCE((SELECT SUM(s.votes) FROM vote_shard s"
+        + " WHERE s.origami_id = o.origami_id), 0) FROM origami o WHERE o.origami_id = ?";
+    private static final String LOCK_SHARDS_SQL = "SELECT id, origami_id, votes FROM vote_shard WHERE votes <> 0 FOR UPDATE";
+    private static final String UNFOLD_SHARD_SQL = "UPDATE vote_shard SET votes = votes - ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrigamiRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> incrementVotesBatch(Map<Long, Integer> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[] {deltas.get(id), id});
+        }
+        int[] updateCounts = jdbcTemplate.batchUpdate(INCREMENT_VOTES_SQL, args);
+        Set<Long> updated = new HashSet<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] > 0) {
+                updated.add(ids.get(i));
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public void incrementShard(long origamiId, int shard, int delta) {
+        String id = VoteShard.id(origamiId, shard);
+        if (jdbcTemplate.update(INCREMENT_SHARD_SQL, delta, id) == 1) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SHARD_SQL, id, origamiId, shard, delta);
+        } catch (DataIntegrityViolationException e) {
+            // Another voter created the shard between the update and the insert
+            jdbcTemplate.update(INCREMENT_SHARD_SQL, delta, id);
+        }
+    }
+
+    @Override
+    public Optional<Long> totalVotes(long origamiId) {
+        return jdbcTemplate.queryForList(TOTAL_VOTES_SQL, Long.class, origamiId).stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> foldShards() {
+        Map<Long, Long> folded = new HashMap<>();
+        List<Object[]> unfold = new ArrayList<>();
+        jdbcTemplate.query(LOCK_SHARDS_SQL, row -> {
+            folded.merge(row.getLong("origami_id"), row.getLong("votes"), Long::sum);
+            unfold.add(new Object[] {row.getLong("votes"), row.getString("id")});
+        });
+        if (unfold.isEmpty()) {
+            return Set.of();
+        }
+        List<Object[]> increments = new ArrayList<>(folded.size());
+        folded.forEach((id, votes) -> increments.add(new Object[] {votes, id}));
+        jdbcTemplate.batchUpdate(INCREMENT_VOTES_SQL, increments);
+        jdbcTemplate.batchUpdate(UNFOLD_SHARD_SQL, unfold);
+        return folded.keySet();
+    }
+
+    @Override
+    @Transactional
+    public void upsertNames(Map<Long, String> names) {
+        List<Object[]> args = new ArrayList<>(names.size());
+        names.forEach((id, name) -> args.add(new Object[] {id, name}));
+        jdbcTemplate.batchUpdate(UPSERT_NAME_SQL, args);
+    }
+}
@@ -0,0 +1,32 @@
+package com.crafty.voting.repository.jpa;
+
+import com.crafty.voting.model.VoteBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface VoteBucketRepository extends JpaRepository<VoteBucket, String> {
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update VoteBucket b set b.votes = b.votes + :votes where b.id = :id")
+    int addVotes(@Param("id") String id, @Param("votes") long votes);
+
+    // A plain insert, so a bucket created concurrently by another replica fails on the primary key instead of being overwritten
+    @Transactional
+    @Modifying
+    @Query(value = "insert into vote_bucket (id, origami_id, epoch_hour, votes) values (:id, :origamiId, :epochHour, :votes)", nativeQuery = true)
+    void insert(@Param("id") String id, @Param("origamiId") long origamiId, @Param("epochHour") long epochHour,
+                @Param("votes") long votes);
+
+    List<VoteBucket> findByEpochHourGreaterThanEqual(long epochHour);
+
+    @Transactional
+    @Modifying
+    @Query("delete from VoteBucket b where b.epochHour < :epochHour")
+    int deleteBefore(@Param("epochHour") long epochHour);
+}
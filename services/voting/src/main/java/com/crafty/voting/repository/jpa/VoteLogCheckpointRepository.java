@@ -0,0 +1,20 @@
+package com.crafty.voting.repository.jpa;
+
+import com.crafty.voting.model.VoteLogCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface VoteLogCheckpointRepository extends JpaRepository<VoteLogCheckpoint, String> {
+
+    List<VoteLogCheckpoint> findByLogId(String logId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from VoteLogCheckpoint c where c.logId = :logId")
+    int deleteByLogId(@Param("logId") String logId);
+}
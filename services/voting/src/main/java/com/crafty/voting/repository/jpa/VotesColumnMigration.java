@@ -0,0 +1,55 @@
+package com.crafty.voting.repository.jpa;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Widens origami.votes from INTEGER to BIGINT in databases created before vote counts became longs.
+ * ddl-auto=update adds missing tables and columns but never changes an existing column's type, so
+ * without this the column keeps overflowing at 2^31. Runs after Hibernate's schema update and does
+ * nothing once the column is BIGINT. Uses the standard ALTER COLUMN ... SET DATA TYPE, which H2 and
+ * PostgreSQL accept; other databases need the ALTER from the README run by hand.
+ */
+@Component
+@Profile("!mongo")
+@DependsOn("entityManagerFactory")
+public class VotesColumnMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(VotesColumnMigration.class);
+
+    private static final String WIDEN_VOTES_SQL = "ALTER TABLE origami ALTER COLUMN votes SET DATA TYPE BIGINT";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VotesColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void widenVotes() {
+        Integer type = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> votesType(connection.getMetaData()));
+        if (type != null && type != Types.BIGINT) {
+            log.info("Widening origami.votes to BIGINT");
+            jdbcTemplate.execute(WIDEN_VOTES_SQL);
+        }
+    }
+
+    // The JDBC type of origami.votes, or null if the table does not exist yet
+    private static Integer votesType(DatabaseMetaData metaData) throws SQLException {
+        boolean upper = metaData.storesUpperCaseIdentifiers();
+        try (ResultSet columns = metaData.getColumns(null, null, upper ? "ORIGAMI" : "origami", upper ? "VOTES" : "votes")) {
+            return columns.next() ? columns.getInt("DATA_TYPE") : null;
+        }
+    }
+}
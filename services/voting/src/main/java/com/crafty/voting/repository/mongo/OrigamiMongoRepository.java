@@ -4,5 +4,14 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import com.crafty.voting.model.Origami;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Profile("mongo")
-public interface OrigamiMongoRepository extends MongoRepository<Origami, String> {}
+public interface OrigamiMongoRepository extends MongoRepository<Origami, String>, OrigamiMongoRepositoryCustom {
+
+    Optional<Origami> findByOrigamiId(Long origamiId);
+
+    List<Origami> findByOrigamiIdIn(Collection<Long> origamiIds);
+}
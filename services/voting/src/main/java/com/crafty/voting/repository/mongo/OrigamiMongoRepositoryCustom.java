@@ -0,0 +1,48 @@
+package com.crafty.voting.repository.mongo;
+
+import com.crafty.voting.model.Origami;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface OrigamiMongoRepositoryCustom {
+
+    // Applies $inc to the votes field and returns the updated document
+    Optional<Origami> incrementVotes(Long origamiId, long delta);
+
+    // Applies $inc and sets the vote log checkpoint kept on the same document, so both change in one atomic write
+    Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore);
+
+    // Checkpoints of the given vote log by origami ID
+    Map<Long, Long> voteLogCheckpoints(String logId);
+
+    // Unsets the given vote log's checkpoints on every document
+    void deleteVoteLogCheckpoints(String logId);
+
+    // Applies all vote deltas in one bulkWrite and returns the IDs that matched a document
+    Set<Long> incrementVotesBatch(Map<Long, Integer> deltas);
+
+    // Adds votes to a shard document with an upserting $inc
+    void incrementShard(long origamiId, int shard, int delta);
+
+    // Origami votes plus its unfolded shard documents
+    Optional<Long> totalVotes(long origamiId);
+
+    // Takes the votes out of each non-zero shard document and adds them to its origami
+    Set<Long> foldShards();
+
+    // Names by ID, loaded without the vote counts
+    Map<Long, String> findAllNames();
+
+    // Inserts missing origamis with no votes and renames existing ones in one unordered bulkWrite of upserts
+    void upsertNames(Map<Long, String> names);
+
+    // Keyset page after the given origami (null for the first page), ordered by ID or by votes
+    List<Origami> findPage(Origami after, int limit, boolean sortByVotes);
+
+    // Cursor-backed stream ordered by ID; must be closed by the caller
+    Stream<Origami> streamAll();
+}
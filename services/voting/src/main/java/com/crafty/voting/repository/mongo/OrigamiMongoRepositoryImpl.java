@@ -0,0 +1,180 @@
+package com.crafty.voting.repository.mongo;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.VoteShard;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class OrigamiMongoRepositoryImpl implements OrigamiMongoRepositoryCustom {
+
+    // Not mapped on Origami, so it is only read and written here
+    private static final String VOTE_LOG_CHECKPOINTS = "voteLogCheckpoints";
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrigamiMongoRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Origami> incrementVotes(Long origamiId, long delta) {
+        Query query = Query.query(Criteria.where("origamiId").is(origamiId));
+        Update update = new Update().inc("votes", delta);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), Origami.class));
+    }
+
+    @Override
+    public Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore) {
+        Query query = Query.query(Criteria.where("origamiId").is(origamiId));
+        Update update = new Update().inc("votes", delta).set(VOTE_LOG_CHECKPOINTS + "." + logId, flushedBefore);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), Origami.class));
+    }
+
+    @Override
+    public Map<Long, Long> voteLogCheckpoints(String logId) {
+        String field = VOTE_LOG_CHECKPOINTS + "." + logId;
+        Query query = Query.query(Criteria.where(field).exists(true));
+        query.fields().include("origamiId").include(field);
+        Map<Long, Long> checkpoints = new HashMap<>();
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Origami.class))) {
+            Document logged = document.get(VOTE_LOG_CHECKPOINTS, Document.class);
+            checkpoints.put(((Number) document.get("origamiId")).longValue(), ((Number) logged.get(logId)).longValue());
+        }
+        return checkpoints;
+    }
+
+    @Override
+    public void deleteVoteLogCheckpoints(String logId) {
+        String field = VOTE_LOG_CHECKPOINTS + "." + logId;
+        mongoTemplate.updateMulti(Query.query(Criteria.where(field).exists(true)), new Update().unset(field), Origami.class);
+    }
+
+    @Override
+    public Set<Long> incrementVotesBatch(Map<Long, Integer> deltas) {
+        // Resolve existing IDs first so unknown origamis can be reported back to the caller
+        Query existing = Query.query(Criteria.where("origamiId").in(deltas.keySet()));
+        existing.fields().include("origamiId");
+        Set<Long> matched = new HashSet<>();
+        mongoTemplate.find(existing, Origami.class).forEach(origami -> matched.add(origami.getOrigamiId()));
+        if (matched.isEmpty()) {
+            return matched;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Origami.class);
+        for (Long origamiId : matched) {
+            bulk.updateOne(Query.query(Criteria.where("origamiId").is(origamiId)),
+                new Update().inc("votes", deltas.get(origamiId).longValue()));
+        }
+        bulk.execute();
+        return matched;
+    }
+
+    @Override
+    public void incrementShard(long origamiId, int shard, int delta) {
+        addToShard(origamiId, shard, delta);
+    }
+
+    private void addToShard(long origamiId, int shard, long votes) {
+        Query query = Query.query(Criteria.where("_id").is(VoteShard.id(origamiId, shard)));
+        Update update = new Update().inc("votes", votes).setOnInsert("origamiId", origamiId).setOnInsert("shard", shard);
+        mongoTemplate.upsert(query, update, VoteShard.class);
+    }
+
+    @Override
+    public Optional<Long> totalVotes(long origamiId) {
+        // Two reads, so a concurrent fold can make the total briefly low; the caller caches it for a moment anyway
+        Query shards = Query.query(Criteria.where("origamiId").is(origamiId));
+        shards.fields().include("votes");
+        long unfolded = mongoTemplate.find(shards, VoteShard.class).stream().mapToLong(VoteShard::getVotes).sum();
+        Query origami = Query.query(Criteria.where("origamiId").is(origamiId));
+        origami.fields().include("votes");
+        return Optional.ofNullable(mongoTemplate.findOne(origami, Origami.class)).map(found -> found.getVotes() + unfolded);
+    }
+
+    @Override
+    public Set<Long> foldShards() {
+        Map<Long, Long> folded = new HashMap<>();
+        for (VoteShard shard : mongoTemplate.find(Query.query(Criteria.where("votes").ne(0L)), VoteShard.class)) {
+            // Only matches while the shard still holds the votes read, so concurrent folds never take them twice
+            Query unchanged = Query.query(Criteria.where("_id").is(shard.getId()).and("votes").is(shard.getVotes()));
+            if (mongoTemplate.updateFirst(unchanged, new Update().inc("votes", -shard.getVotes()), VoteShard.class)
+                    .getModifiedCount() == 1) {
+                folded.merge(shard.getOrigamiId(), shard.getVotes(), Long::sum);
+            }
+        }
+        if (folded.isEmpty()) {
+            return Set.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Origami.class);
+        folded.forEach((origamiId, votes) ->
+            bulk.updateOne(Query.query(Criteria.where("origamiId").is(origamiId)), new Update().inc("votes", votes)));
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Hand the votes back to the shards; without a multi-document transaction a crash here loses them
+            folded.forEach((origamiId, votes) -> addToShard(origamiId, 0, votes));
+            throw e;
+        }
+        return folded.keySet();
+    }
+
+    @Override
+    public Map<Long, String> findAllNames() {
+        Query all = new Query();
+        all.fields().include("origamiId").include("name");
+        Map<Long, String> names = new HashMap<>();
+        mongoTemplate.find(all, Origami.class).forEach(origami -> names.put(origami.getOrigamiId(), origami.getName()));
+        return names;
+    }
+
+    @Override
+    public void upsertNames(Map<Long, String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Origami.class);
+        names.forEach((origamiId, name) -> bulk.upsert(Query.query(Criteria.where("origamiId").is(origamiId)),
+            new Update().set("name", name).setOnInsert("votes", 0L)));
+        bulk.execute();
+    }
+
+    @Override
+    public List<Origami> findPage(Origami after, int limit, boolean sortByVotes) {
+        Query query = new Query().limit(limit);
+        if (sortByVotes) {
+            query.with(Sort.by(Sort.Order.desc("votes"), Sort.Order.asc("origamiId")));
+            if (after != null) {
+                query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("votes").lt(after.getVotes()),
+                    Criteria.where("votes").is(after.getVotes()).and("origamiId").gt(after.getOrigamiId())));
+            }
+        } else {
+            query.with(Sort.by(Sort.Order.asc("origamiId")));
+            if (after != null) {
+                query.addCriteria(Criteria.where("origamiId").gt(after.getOrigamiId()));
+            }
+        }
+        return mongoTemplate.find(query, Origami.class);
+    }
+
+    @Override
+    public Stream<Origami> streamAll() {
+        return mongoTemplate.stream(new Query().with(Sort.by(Sort.Order.asc("origamiId"))), Origami.class);
+    }
+}
@@ -0,0 +1,12 @@
+package com.crafty.voting.repository.reactive;
+
+import com.crafty.voting.model.Origami;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+@Profile("reactive")
+public interface ReactiveOrigamiMongoRepository extends ReactiveMongoRepository<Origami, String> {
+
+    Mono<Origami> findByOrigamiId(Long origamiId);
+}
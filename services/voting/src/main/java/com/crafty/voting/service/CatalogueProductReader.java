@@ -0,0 +1,57 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.CatalogueProductDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams a catalogue product array one product at a time, keeping only {@code id} and {@code name}.
+ * All other fields are skipped without being materialized.
+ */
+public class CatalogueProductReader {
+
+    private final JsonFactory jsonFactory;
+
+    public CatalogueProductReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    // Returns the number of bytes read from the body
+    public long read(InputStream body, Consumer<CatalogueProductDTO> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of catalogue products");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                consumer.accept(readProduct(parser));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a catalogue product object");
+            }
+            return parser.currentLocation().getByteOffset();
+        }
+    }
+
+    private static CatalogueProductDTO readProduct(JsonParser parser) throws IOException {
+        CatalogueProductDTO product = new CatalogueProductDTO();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                product.setId(parser.getLongValue());
+            } else if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+                product.setName(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return product;
+    }
+}
@@ -0,0 +1,22 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.IdempotencyKey;
+
+import java.util.Optional;
+
+/**
+ * Idempotency keys shared by all replicas, so a retry that reaches another replica, or this one
+ * after a restart, still gets the original response.
+ */
+public interface IdempotencyKeyStore {
+
+    // Stores the in-progress key unless an unexpired one with the same ID exists, which is returned instead
+    Optional<IdempotencyKey> claim(IdempotencyKey key);
+
+    void complete(IdempotencyKey key);
+
+    // Forgets a key that is still in progress, so the vote can be retried
+    void release(String id);
+
+    void deleteExpired(long now);
+}
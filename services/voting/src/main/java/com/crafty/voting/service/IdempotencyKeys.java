@@ -0,0 +1,171 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.model.IdempotencyKey;
+import com.crafty.voting.model.Origami;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key handling for single votes. Keys are kept in a bounded cache for ttl-ms, so a
+ * retried vote is answered from memory without reaching the repository. With persist enabled they
+ * are also claimed in the IdempotencyKeyStore, which answers retries that reach another replica.
+ */
+@Component
+public class IdempotencyKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeys.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // A claim whose vote never finished, e.g. because its replica died, blocks retries only this long
+    private static final long CLAIM_TTL_MS = 60000;
+
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final VotingMetrics votingMetrics;
+    private final boolean enabled;
+    private final boolean persist;
+    private final long ttlMs;
+
+    private final Cache<String, IdempotencyKey> keys;
+
+    public IdempotencyKeys(IdempotencyKeyStore idempotencyKeyStore, VotingMetrics votingMetrics,
+                           VotingProperties votingProperties) {
+        VotingProperties.Idempotency idempotency = votingProperties.getIdempotency();
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.votingMetrics = votingMetrics;
+        this.enabled = idempotency.isEnabled();
+        this.persist = idempotency.isPersist();
+        this.ttlMs = idempotency.getTtlMs();
+        this.keys = Caffeine.newBuilder()
+            .maximumSize(idempotency.getMaxKeys())
+            // Until expiresAt: ttl-ms once the vote is done, CLAIM_TTL_MS while it is in progress
+            .expireAfter(new UntilExpiresAt())
+            .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether begin and finish may block on the repository
+    public boolean isPersistent() {
+        return persist;
+    }
+
+    // Visible ASCII only, like the opaque strings (usually UUIDs) clients generate
+    public static boolean isValid(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '!' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Claims the key for a vote on origamiId. Returns null if the caller now holds the key and must
+     * vote, then call finish. Otherwise returns the earlier vote with this key, which is either
+     * complete or still in progress and may be for another origami.
+     */
+    public IdempotencyKey begin(String key, String origamiId) {
+        IdempotencyKey claim = IdempotencyKey.inProgress(key, origamiId, System.currentTimeMillis() + CLAIM_TTL_MS);
+        IdempotencyKey earlier = keys.asMap().putIfAbsent(key, claim);
+        if (earlier == null && persist) {
+            Optional<IdempotencyKey> stored;
+            try {
+                stored = idempotencyKeyStore.claim(claim);
+            } catch (RuntimeException e) {
+                keys.asMap().remove(key, claim);
+                throw e;
+            }
+            if (stored.isEmpty()) {
+                return null;
+            }
+            earlier = stored.get();
+            if (earlier.isInProgress()) {
+                keys.asMap().remove(key, claim);
+            } else {
+                keys.asMap().replace(key, claim, earlier);
+            }
+        }
+        if (earlier != null && !earlier.isInProgress() && earlier.getOrigamiId().equals(origamiId)) {
+            votingMetrics.voteShed("replayed");
+        }
+        return earlier;
+    }
+
+    // Records the response for a claimed key; after a server error the key is released so a retry votes again
+    public void finish(String key, String origamiId, int status, Origami origami) {
+        if (status >= 500) {
+            keys.asMap().computeIfPresent(key, (id, earlier) -> earlier.isInProgress() ? null : earlier);
+            if (persist) {
+                try {
+                    idempotencyKeyStore.release(key);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to release idempotency key {}; it expires in {} ms: {}", key, CLAIM_TTL_MS, e.getMessage());
+                }
+            }
+            return;
+        }
+        IdempotencyKey done = IdempotencyKey.inProgress(key, origamiId, System.currentTimeMillis() + ttlMs);
+        done.setStatus(status);
+        if (origami != null) {
+            done.setName(origami.getName());
+            done.setVotes(origami.getVotes());
+        }
+        keys.put(key, done);
+        if (persist) {
+            try {
+                idempotencyKeyStore.complete(done);
+            } catch (RuntimeException e) {
+                // The vote is counted; only retries reaching another replica miss the stored response
+                log.warn("Failed to store idempotency key {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    // Whether this replica has seen a vote with the key; VoteGuard lets such retries through
+    public boolean isKnown(String key) {
+        return keys.getIfPresent(key) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${voting.idempotency.cleanup-interval-ms}")
+    public void deleteExpired() {
+        if (persist) {
+            idempotencyKeyStore.deleteExpired(System.currentTimeMillis());
+        }
+    }
+
+    private static class UntilExpiresAt implements Expiry<String, IdempotencyKey> {
+
+        @Override
+        public long expireAfterCreate(String id, IdempotencyKey key, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, key.getExpiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, IdempotencyKey key, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, key, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, IdempotencyKey key, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Non-persistent store for tests and benchmarks. Origamis are copied in and out,
+ * so callers never share an instance with the map.
+ */
+@Component
+@Profile("memory")
+public class InMemoryOrigamiStore implements OrigamiStore {
+
+    private static final Comparator<Origami> BY_VOTES =
+        Comparator.comparingLong(Origami::getVotes).reversed().thenComparing(Origami::getOrigamiId);
+
+    private final ConcurrentNavigableMap<Long, Origami> origamis = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    // Checkpoints by vote log ID; nothing here outlives the process, so they only need to be consistent within it
+    private final ConcurrentMap<String, ConcurrentMap<Long, Long>> voteLogCheckpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Origami> findById(long origamiId) {
+        return Optional.ofNullable(origamis.get(origamiId)).map(InMemoryOrigamiStore::copy);
+    }
+
+    @Override
+    public List<Origami> findAllById(Collection<Long> origamiIds) {
+        return origamiIds.stream().map(origamis::get).filter(origami -> origami != null).map(InMemoryOrigamiStore::copy).toList();
+    }
+
+    @Override
+    public List<Origami> findAll() {
+        return origamis.values().stream().map(InMemoryOrigamiStore::copy).toList();
+    }
+
+    @Override
+    public List<Origami> findPage(Long after, int limit, boolean sortByVotes) {
+        if (!sortByVotes) {
+            Map<Long, Origami> tail = after == null ? origamis : origamis.tailMap(after, false);
+            return tail.values().stream().limit(limit).map(InMemoryOrigamiStore::copy).toList();
+        }
+        Stream<Origami> ranked = origamis.values().stream().map(InMemoryOrigamiStore::copy).sorted(BY_VOTES);
+        if (after != null) {
+            Origami cursor = origamis.get(after);
+            if (cursor == null) {
+                return List.of();
+            }
+            ranked = ranked.filter(origami -> BY_VOTES.compare(origami, cursor) > 0);
+        }
+        return ranked.limit(limit).toList();
+    }
+
+    @Override
+    public void forEach(Consumer<Origami> action) {
+        origamis.values().forEach(origami -> action.accept(copy(origami)));
+    }
+
+    @Override
+    public Origami save(Origami origami) {
+        Origami saved = copy(origami);
+        if (saved.getOrigamiId() == null) {
+            saved.setOrigamiId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(saved.getOrigamiId() + 1, Math::max);
+        }
+        origamis.put(saved.getOrigamiId(), saved);
+        return copy(saved);
+    }
+
+    @Override
+    public Map<Long, String> findAllNames() {
+        Map<Long, String> names = new HashMap<>();
+        origamis.forEach((origamiId, origami) -> names.put(origamiId, origami.getName()));
+        return names;
+    }
+
+    @Override
+    public void upsertNames(Map<Long, String> names) {
+        names.forEach((origamiId, name) -> {
+            origamis.compute(origamiId, (id, origami) -> {
+                Origami upserted = new Origami();
+                upserted.setOrigamiId(id);
+                upserted.setName(name);
+                upserted.setVotes(origami == null ? 0 : origami.getVotes());
+                return upserted;
+            });
+            nextId.accumulateAndGet(origamiId + 1, Math::max);
+        });
+    }
+
+    @Override
+    public Optional<Origami> incrementVotes(long origamiId, long delta) {
+        Origami updated = origamis.computeIfPresent(origamiId, (id, origami) -> {
+            Origami copy = copy(origami);
+            copy.setVotes(origami.getVotes() + delta);
+            return copy;
+        });
+        return Optional.ofNullable(updated).map(InMemoryOrigamiStore::copy);
+    }
+
+    @Override
+    public Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore) {
+        Optional<Origami> updated = incrementVotes(origamiId, delta);
+        updated.ifPresent(origami ->
+            voteLogCheckpoints.computeIfAbsent(logId, id -> new ConcurrentHashMap<>()).put(origamiId, flushedBefore));
+        return updated;
+    }
+
+    @Override
+    public Map<Long, Long> voteLogCheckpoints(String logId) {
+        return new HashMap<>(voteLogCheckpoints.getOrDefault(logId, new ConcurrentHashMap<>()));
+    }
+
+    @Override
+    public void deleteVoteLogCheckpoints(String logId) {
+        voteLogCheckpoints.remove(logId);
+    }
+
+    @Override
+    public Set<Long> incrementVotesBatch(Map<Long, Integer> deltas) {
+        Set<Long> matched = new HashSet<>();
+        deltas.forEach((origamiId, delta) -> incrementVotes(origamiId, delta).ifPresent(origami -> matched.add(origamiId)));
+        return matched;
+    }
+
+    // The map has no row lock to spread, so sub-counters go straight into the origami
+
+    @Override
+    public void incrementShard(long origamiId, int shard, int delta) {
+        incrementVotes(origamiId, delta);
+    }
+
+    @Override
+    public Optional<Long> totalVotes(long origamiId) {
+        return findById(origamiId).map(Origami::getVotes);
+    }
+
+    @Override
+    public Set<Long> foldShards() {
+        return Set.of();
+    }
+
+    @Override
+    public long count() {
+        return origamis.size();
+    }
+
+    private static Origami copy(Origami source) {
+        Origami copy = new Origami();
+        copy.setOrigamiId(source.getOrigamiId());
+        copy.setName(source.getName());
+        copy.setVotes(source.getVotes());
+        return copy;
+    }
+}
@@ -0,0 +1,49 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.IdempotencyKey;
+import com.crafty.voting.repository.jpa.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@Profile("!mongo")
+public class JpaIdempotencyKeyStore implements IdempotencyKeyStore {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Override
+    public Optional<IdempotencyKey> claim(IdempotencyKey key) {
+        try {
+            idempotencyKeyRepository.insert(key.getId(), key.getOrigamiId(), key.getExpiresAt());
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // The key exists; reuse it if it has expired but not been cleaned up yet
+        }
+        if (idempotencyKeyRepository.takeOverExpired(key.getId(), key.getOrigamiId(), System.currentTimeMillis(),
+                key.getExpiresAt()) == 1) {
+            return Optional.empty();
+        }
+        // A key released since the insert failed is reported as in progress; the client retries
+        return Optional.of(idempotencyKeyRepository.findById(key.getId()).orElse(key));
+    }
+
+    @Override
+    public void complete(IdempotencyKey key) {
+        idempotencyKeyRepository.complete(key.getId(), key.getStatus(), key.getName(), key.getVotes(), key.getExpiresAt());
+    }
+
+    @Override
+    public void release(String id) {
+        idempotencyKeyRepository.release(id);
+    }
+
+    @Override
+    public void deleteExpired(long now) {
+        idempotencyKeyRepository.deleteExpired(now);
+    }
+}
@@ -0,0 +1,44 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.repository.jpa.LeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!mongo")
+public class JpaLeaseManager implements LeaseManager {
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private VotingProperties votingProperties;
+
+    @Override
+    public boolean tryAcquire(String name) {
+        String owner = votingProperties.getLease().getOwner();
+        long now = System.currentTimeMillis();
+        long expiresAt = now + votingProperties.getLease().getTtlMs();
+        if (leaseRepository.renewOrTakeOver(name, owner, now, expiresAt) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            leaseRepository.insert(name, owner, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another replica created the lease between the update and the insert
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String name) {
+        leaseRepository.release(name, votingProperties.getLease().getOwner());
+    }
+}
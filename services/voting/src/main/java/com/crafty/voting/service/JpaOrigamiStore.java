@@ -0,0 +1,160 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.VoteLogCheckpoint;
+import com.crafty.voting.repository.jpa.OrigamiName;
+import com.crafty.voting.repository.jpa.OrigamiRepository;
+import com.crafty.voting.repository.jpa.VoteLogCheckpointRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+@Profile("!mongo & !memory")
+public class JpaOrigamiStore implements OrigamiStore {
+
+    @Autowired
+    private OrigamiRepository origamiRepository;
+
+    @Autowired
+    private VoteLogCheckpointRepository voteLogCheckpointRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Origami> findById(long origamiId) {
+        return origamiRepository.findById(origamiId);
+    }
+
+    @Override
+    public List<Origami> findAllById(Collection<Long> origamiIds) {
+        return origamiRepository.findAllById(origamiIds);
+    }
+
+    @Override
+    public List<Origami> findAll() {
+        return origamiRepository.findAll();
+    }
+
+    @Override
+    public List<Origami> findPage(Long after, int limit, boolean sortByVotes) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (!sortByVotes) {
+            return origamiRepository.findByOrigamiIdGreaterThanOrderByOrigamiIdAsc(after == null ? Long.MIN_VALUE : after, page);
+        }
+        if (after == null) {
+            return origamiRepository.findTopByVotes(page);
+        }
+        return origamiRepository.findById(after)
+            .map(cursor -> origamiRepository.findByVotesAfter(cursor.getVotes(), cursor.getOrigamiId(), page))
+            .orElse(List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Origami> action) {
+        try (Stream<Origami> origamis = origamiRepository.streamAll()) {
+            origamis.forEach(origami -> {
+                action.accept(origami);
+                // Keep the persistence context from growing with the result set
+                entityManager.detach(origami);
+            });
+        }
+    }
+
+    @Override
+    public Origami save(Origami origami) {
+        return origamiRepository.save(origami);
+    }
+
+    @Override
+    public Map<Long, String> findAllNames() {
+        Map<Long, String> names = new HashMap<>();
+        for (OrigamiName origami : origamiRepository.findAllNames()) {
+            names.put(origami.getOrigamiId(), origami.getName());
+        }
+        return names;
+    }
+
+    @Override
+    public void upsertNames(Map<Long, String> names) {
+        origamiRepository.upsertNames(names);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Origami> incrementVotes(long origamiId, long delta) {
+        if (origamiRepository.incrementVotes(origamiId, delta) == 0) {
+            return Optional.empty();
+        }
+        return origamiRepository.findById(origamiId);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore) {
+        if (origamiRepository.incrementVotes(origamiId, delta) == 0) {
+            return Optional.empty();
+        }
+        VoteLogCheckpoint checkpoint = new VoteLogCheckpoint();
+        checkpoint.setId(VoteLogCheckpoint.id(logId, origamiId));
+        checkpoint.setLogId(logId);
+        checkpoint.setOrigamiId(origamiId);
+        checkpoint.setFlushedBefore(flushedBefore);
+        voteLogCheckpointRepository.save(checkpoint);
+        return origamiRepository.findById(origamiId);
+    }
+
+    @Override
+    public Map<Long, Long> voteLogCheckpoints(String logId) {
+        Map<Long, Long> checkpoints = new HashMap<>();
+        for (VoteLogCheckpoint checkpoint : voteLogCheckpointRepository.findByLogId(logId)) {
+            checkpoints.put(checkpoint.getOrigamiId(), checkpoint.getFlushedBefore());
+        }
+        return checkpoints;
+    }
+
+    @Override
+    public void deleteVoteLogCheckpoints(String logId) {
+        voteLogCheckpointRepository.deleteByLogId(logId);
+    }
+
+    @Override
+    public Set<Long> incrementVotesBatch(Map<Long, Integer> deltas) {
+        return origamiRepository.incrementVotesBatch(deltas);
+    }
+
+    @Override
+    public void incrementShard(long origamiId, int shard, int delta) {
+        origamiRepository.incrementShard(origamiId, shard, delta);
+    }
+
+    @Override
+    public Optional<Long> totalVotes(long origamiId) {
+        return origamiRepository.totalVotes(origamiId);
+    }
+
+    @Override
+    public Set<Long> foldShards() {
+        return origamiRepository.foldShards();
+    }
+
+    @Override
+    public long count() {
+        return origamiRepository.count();
+    }
+}
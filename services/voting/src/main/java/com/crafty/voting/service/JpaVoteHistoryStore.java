@@ -0,0 +1,42 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.VoteBucket;
+import com.crafty.voting.repository.jpa.VoteBucketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Profile("!mongo")
+public class JpaVoteHistoryStore implements VoteHistoryStore {
+
+    @Autowired
+    private VoteBucketRepository voteBucketRepository;
+
+    @Override
+    public void addVotes(long origamiId, long epochHour, long votes) {
+        String id = VoteBucket.id(origamiId, epochHour);
+        if (voteBucketRepository.addVotes(id, votes) == 1) {
+            return;
+        }
+        try {
+            voteBucketRepository.insert(id, origamiId, epochHour, votes);
+        } catch (DataIntegrityViolationException e) {
+            // Another replica created the bucket between the update and the insert
+            voteBucketRepository.addVotes(id, votes);
+        }
+    }
+
+    @Override
+    public List<VoteBucket> findSince(long epochHour) {
+        return voteBucketRepository.findByEpochHourGreaterThanEqual(epochHour);
+    }
+
+    @Override
+    public long deleteBefore(long epochHour) {
+        return voteBucketRepository.deleteBefore(epochHour);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Origamis ranked by votes in a skip list, so an update costs O(log n) and reading the top k costs O(k).
+ * Vote counts only grow, so an update carrying fewer votes than the ranked entry is treated as stale.
+ */
+@Component
+public class Leaderboard {
+
+    private record Entry(long origamiId, String name, long votes) {}
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::votes).reversed()
+        .thenComparingLong(Entry::origamiId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING);
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public void update(Origami origami) {
+        if (origami.getOrigamiId() == null) {
+            return;
+        }
+        entries.compute(origami.getOrigamiId(), (origamiId, current) -> {
+            if (current != null && current.votes() > origami.getVotes()) {
+                return current;
+            }
+            Entry updated = new Entry(origamiId, origami.getName(), origami.getVotes());
+            if (current != null) {
+                ranking.remove(current);
+            }
+            ranking.add(updated);
+            return updated;
+        });
+    }
+
+    public void rename(Long origamiId, String name) {
+        entries.computeIfPresent(origamiId, (id, current) -> {
+            Entry renamed = new Entry(id, name, current.votes());
+            ranking.remove(current);
+            ranking.add(renamed);
+            return renamed;
+        });
+    }
+
+    public List<Origami> top(int k) {
+        List<Origami> top = new ArrayList<>(k);
+        Iterator<Entry> iterator = ranking.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            Origami origami = new Origami();
+            origami.setOrigamiId(entry.origamiId());
+            origami.setName(entry.name());
+            origami.setVotes(entry.votes());
+            top.add(origami);
+        }
+        return top;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.crafty.voting.service;
+
+/**
+ * Named leases shared by all replicas through the database, so a job runs on one replica at a time.
+ * A lease lasts {@code voting.lease.ttl-ms} from its last acquisition; the holder renews it by acquiring again.
+ */
+public interface LeaseManager {
+
+    // True if this replica now holds the lease, either newly or by renewing it
+    boolean tryAcquire(String name);
+
+    void release(String name);
+}
@@ -0,0 +1,58 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.IdempotencyKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@Profile("mongo")
+public class MongoIdempotencyKeyStore implements IdempotencyKeyStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<IdempotencyKey> claim(IdempotencyKey key) {
+        try {
+            mongoTemplate.insert(key);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            // The key exists; reuse it if it has expired but not been cleaned up yet
+        }
+        Query expired = Query.query(Criteria.where("_id").is(key.getId()).and("expiresAt").lt(System.currentTimeMillis()));
+        Update takeOver = new Update().set("origamiId", key.getOrigamiId()).set("status", IdempotencyKey.IN_PROGRESS)
+            .unset("name").set("votes", 0L).set("expiresAt", key.getExpiresAt());
+        if (mongoTemplate.updateFirst(expired, takeOver, IdempotencyKey.class).getModifiedCount() == 1) {
+            return Optional.empty();
+        }
+        // A key released since the insert failed is reported as in progress; the client retries
+        IdempotencyKey existing = mongoTemplate.findById(key.getId(), IdempotencyKey.class);
+        return Optional.of(existing != null ? existing : key);
+    }
+
+    @Override
+    public void complete(IdempotencyKey key) {
+        Update complete = new Update().set("status", key.getStatus()).set("name", key.getName())
+            .set("votes", key.getVotes()).set("expiresAt", key.getExpiresAt());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key.getId())), complete, IdempotencyKey.class);
+    }
+
+    @Override
+    public void release(String id) {
+        Query inProgress = Query.query(Criteria.where("_id").is(id).and("status").is(IdempotencyKey.IN_PROGRESS));
+        mongoTemplate.remove(inProgress, IdempotencyKey.class);
+    }
+
+    @Override
+    public void deleteExpired(long now) {
+        mongoTemplate.remove(Query.query(Criteria.where("expiresAt").lt(now)), IdempotencyKey.class);
+    }
+}
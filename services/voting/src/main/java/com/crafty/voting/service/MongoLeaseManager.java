@@ -0,0 +1,45 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.model.Lease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("mongo")
+public class MongoLeaseManager implements LeaseManager {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VotingProperties votingProperties;
+
+    @Override
+    public boolean tryAcquire(String name) {
+        String owner = votingProperties.getLease().getOwner();
+        long now = System.currentTimeMillis();
+        Query claimable = Query.query(Criteria.where("_id").is(name)
+            .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update claim = new Update().set("owner", owner).set("expiresAt", now + votingProperties.getLease().getTtlMs());
+        try {
+            // With no claimable document the upsert inserts one, which fails on _id if another replica holds it
+            mongoTemplate.upsert(claimable, claim, Lease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String name) {
+        String owner = votingProperties.getLease().getOwner();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("owner").is(owner)), Lease.class);
+    }
+}
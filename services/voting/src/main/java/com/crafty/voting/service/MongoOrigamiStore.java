@@ -0,0 +1,123 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.repository.mongo.OrigamiMongoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+@Profile("mongo")
+public class MongoOrigamiStore implements OrigamiStore {
+
+    @Autowired
+    private OrigamiMongoRepository origamiMongoRepository;
+
+    @Override
+    public Optional<Origami> findById(long origamiId) {
+        return origamiMongoRepository.findByOrigamiId(origamiId);
+    }
+
+    @Override
+    public List<Origami> findAllById(Collection<Long> origamiIds) {
+        return origamiMongoRepository.findByOrigamiIdIn(origamiIds);
+    }
+
+    @Override
+    public Optional<Origami> findByDocumentId(String documentId) {
+        return origamiMongoRepository.findById(documentId);
+    }
+
+    @Override
+    public List<Origami> findAll() {
+        return origamiMongoRepository.findAll();
+    }
+
+    @Override
+    public List<Origami> findPage(Long after, int limit, boolean sortByVotes) {
+        Origami cursor = null;
+        if (after != null) {
+            Optional<Origami> cursorOpt = origamiMongoRepository.findByOrigamiId(after);
+            if (cursorOpt.isEmpty()) {
+                return List.of();
+            }
+            cursor = cursorOpt.get();
+        }
+        return origamiMongoRepository.findPage(cursor, limit, sortByVotes);
+    }
+
+    @Override
+    public void forEach(Consumer<Origami> action) {
+        try (Stream<Origami> origamis = origamiMongoRepository.streamAll()) {
+            origamis.forEach(action);
+        }
+    }
+
+    @Override
+    public Origami save(Origami origami) {
+        return origamiMongoRepository.save(origami);
+    }
+
+    @Override
+    public Map<Long, String> findAllNames() {
+        return origamiMongoRepository.findAllNames();
+    }
+
+    @Override
+    public void upsertNames(Map<Long, String> names) {
+        origamiMongoRepository.upsertNames(names);
+    }
+
+    @Override
+    public Optional<Origami> incrementVotes(long origamiId, long delta) {
+        return origamiMongoRepository.incrementVotes(origamiId, delta);
+    }
+
+    @Override
+    public Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore) {
+        return origamiMongoRepository.incrementLoggedVotes(origamiId, delta, logId, flushedBefore);
+    }
+
+    @Override
+    public Map<Long, Long> voteLogCheckpoints(String logId) {
+        return origamiMongoRepository.voteLogCheckpoints(logId);
+    }
+
+    @Override
+    public void deleteVoteLogCheckpoints(String logId) {
+        origamiMongoRepository.deleteVoteLogCheckpoints(logId);
+    }
+
+    @Override
+    public Set<Long> incrementVotesBatch(Map<Long, Integer> deltas) {
+        return origamiMongoRepository.incrementVotesBatch(deltas);
+    }
+
+    @Override
+    public void incrementShard(long origamiId, int shard, int delta) {
+        origamiMongoRepository.incrementShard(origamiId, shard, delta);
+    }
+
+    @Override
+    public Optional<Long> totalVotes(long origamiId) {
+        return origamiMongoRepository.totalVotes(origamiId);
+    }
+
+    @Override
+    public Set<Long> foldShards() {
+        return origamiMongoRepository.foldShards();
+    }
+
+    @Override
+    public long count() {
+        return origamiMongoRepository.count();
+    }
+}
@@ -0,0 +1,37 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.VoteBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Profile("mongo")
+public class MongoVoteHistoryStore implements VoteHistoryStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void addVotes(long origamiId, long epochHour, long votes) {
+        Query bucket = Query.query(Criteria.where("_id").is(VoteBucket.id(origamiId, epochHour)));
+        Update add = new Update().inc("votes", votes).setOnInsert("origamiId", origamiId).setOnInsert("epochHour", epochHour);
+        mongoTemplate.upsert(bucket, add, VoteBucket.class);
+    }
+
+    @Override
+    public List<VoteBucket> findSince(long epochHour) {
+        return mongoTemplate.find(Query.query(Criteria.where("epochHour").gte(epochHour)), VoteBucket.class);
+    }
+
+    @Override
+    public long deleteBefore(long epochHour) {
+        return mongoTemplate.remove(Query.query(Criteria.where("epochHour").lt(epochHour)), VoteBucket.class).getDeletedCount();
+    }
+}
@@ -0,0 +1,41 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of persisted origamis keyed by ID. Size and expiry come from
+ * spring.cache.caffeine.spec; writers keep it current by putting every saved or voted origami.
+ */
+@Component
+public class OrigamiCache {
+
+    public static final String CACHE_NAME = "origamis";
+
+    private final Cache cache;
+
+    public OrigamiCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public Optional<Origami> get(Long origamiId, Function<Long, Optional<Origami>> loader) {
+        // Unknown IDs are cached as null so repeated misses do not reach the database either
+        Origami origami = cache.get(origamiId, () -> loader.apply(origamiId).orElse(null));
+        return Optional.ofNullable(origami);
+    }
+
+    public void put(Origami origami) {
+        if (origami.getOrigamiId() != null) {
+            cache.put(origami.getOrigamiId(), origami);
+        }
+    }
+
+    public void evict(Long origamiId) {
+        cache.evict(origamiId);
+    }
+}
@@ -1,59 +1,447 @@
 package com.crafty.voting.service;
 
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.model.BatchVoteResult;
 import com.crafty.voting.model.Origami;
-import com.crafty.voting.repository.jpa.OrigamiRepository;
-import com.crafty.voting.repository.mongo.OrigamiMongoRepository;
+import com.crafty.voting.model.TrendingOrigami;
+import com.crafty.voting.model.VoteDelta;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 @Service
 public class OrigamiService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrigamiService.class);
+
+    @Autowired
+    private OrigamiStore origamiStore;
+
+    @Autowired
+    private VotingProperties votingProperties;
+
+    @Autowired
+    private VoteAccumulator voteAccumulator;
+
     @Autowired
-    private OrigamiRepository origamiRepository;
+    private OrigamiCache origamiCache;
 
-    @Autowired(required = false)
-    private OrigamiMongoRepository origamiMongoRepository;
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private VoteUpdateBroadcaster voteUpdateBroadcaster;
+
+    @Autowired
+    private VotingMetrics votingMetrics;
+
+    @Autowired
+    private VoteLog voteLog;
 
     @Autowired
-    private Environment env;
+    private VoteHistory voteHistory;
+
+    @Autowired
+    private ShardedVoteCounters shardedVoteCounters;
+
+    // Voters share it while buffering and logging; the flush takes it alone to seal the log and drain the accumulator together
+    private final ReadWriteLock voteLogLock = new ReentrantReadWriteLock();
 
     public Optional<Origami> getOrigamiById(String id) {
-        if (isMongoProfile() && origamiMongoRepository != null) {
-            return origamiMongoRepository.findById(id);
+        if (id != null && parseId(id) == null) {
+            // Lookups also accept a MongoDB document ID; votes only ever take the numeric ID
+            return origamiStore.findByDocumentId(id).map(this::mergePending);
+        }
+        return findPersistedOrigami(id).map(this::mergePending);
+    }
+
+    private Optional<Origami> findPersistedOrigami(String id) {
+        Long origamiId = parseId(id);
+        if (origamiId == null) {
+            return Optional.empty();
+        }
+        return findPersistedOrigami(origamiId);
+    }
+
+    private Optional<Origami> findPersistedOrigami(long origamiId) {
+        return origamiCache.get(origamiId, origamiStore::findById);
+    }
+
+    public List<Origami> getAllOrigamis() {
+        return mergePending(origamiStore.findAll());
+    }
+
+    // Keyset pagination: returns up to limit origamis after the cursor origami (null for the first page)
+    public List<Origami> getOrigamiPage(Long after, int limit, boolean sortByVotes) {
+        return mergePending(origamiStore.findPage(after, limit, sortByVotes));
+    }
+
+    // Hands every origami to the action one at a time without materializing the whole table
+    public void forEachOrigami(Consumer<Origami> action) {
+        origamiStore.forEach(origami -> action.accept(mergePending(origami)));
+    }
+
+    private List<Origami> mergePending(List<Origami> origamis) {
+        if (votingProperties.getWriteBehind().isEnabled() || shardedVoteCounters.isEnabled()) {
+            return origamis.stream().map(this::mergePending).toList();
+        }
+        return origamis;
+    }
+
+    // Adds votes not persisted yet, or not folded in from the shards of a hot origami yet
+    private Origami mergePending(Origami origami) {
+        if (votingProperties.getWriteBehind().isEnabled()) {
+            origami = voteAccumulator.merge(origami);
+        }
+        return shardedVoteCounters.isEnabled() ? shardedVoteCounters.merge(origami) : origami;
+    }
+
+    public Origami saveOrUpdateOrigami(Origami origami) {
+        Origami saved = origamiStore.save(origami);
+        votesChanged(saved);
+        return saved;
+    }
+
+    public long getVotes(String origamiId) {
+        Optional<Origami> origamiOpt = getOrigamiById(origamiId);
+        return origamiOpt.map(Origami::getVotes).orElse(0L);
+    }
+
+    @Transactional
+    public Optional<Long> incrementVotes(String origamiId, int delta) {
+        return incrementPersistedVotes(origamiId, delta).map(Origami::getVotes);
+    }
+
+    @Transactional
+    public Optional<Origami> recordVote(String origamiId) {
+        Timer.Sample sample = votingMetrics.startTimer();
+        try {
+            Optional<Origami> voted = applyVote(origamiId);
+            votingMetrics.voteRecorded(sample, VotingMetrics.SINGLE, voted.isPresent() ? 1 : 0, voted.isPresent() ? 0 : 1);
+            return voted;
+        } catch (RuntimeException e) {
+            votingMetrics.voteFailed(sample, VotingMetrics.SINGLE, 1);
+            throw e;
+        }
+    }
+
+    private Optional<Origami> applyVote(String origamiId) {
+        Optional<Origami> voted;
+        if (votingProperties.getWriteBehind().isEnabled()) {
+            voted = Optional.ofNullable(bufferVotes(Map.of(origamiId, 1)).get(origamiId));
+            voted.ifPresent(voteUpdateBroadcaster::publish);
+        } else if (shardedVoteCounters.isEnabled()) {
+            voted = incrementShardedVotes(origamiId);
         } else {
-            try {
-                Long longId = Long.valueOf(id);
-                return origamiRepository.findById(longId);
-            } catch (NumberFormatException e) {
-                return Optional.empty();
+            voted = incrementPersistedVotes(origamiId, 1);
+        }
+        voted.ifPresent(origami -> voteHistory.record(origami.getOrigamiId(), 1));
+        return voted;
+    }
+
+    @Transactional
+    public BatchVoteResult recordVotes(List<VoteDelta> votes) {
+        long requested = votes.stream().mapToLong(VoteDelta::getDelta).sum();
+        Timer.Sample sample = votingMetrics.startTimer();
+        try {
+            BatchVoteResult result = applyVotes(votes);
+            votingMetrics.voteRecorded(sample, VotingMetrics.BATCH, result.getAccepted(), requested - result.getAccepted());
+            return result;
+        } catch (RuntimeException e) {
+            votingMetrics.voteFailed(sample, VotingMetrics.BATCH, requested);
+            throw e;
+        }
+    }
+
+    private BatchVoteResult applyVotes(List<VoteDelta> votes) {
+        // Coalesce repeated IDs so each origami is written once
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        for (VoteDelta vote : votes) {
+            deltas.merge(vote.getOrigamiId(), vote.getDelta(), Math::addExact);
+        }
+
+        long accepted = 0;
+        List<String> unknown = new ArrayList<>();
+        if (votingProperties.getWriteBehind().isEnabled()) {
+            Map<String, Origami> buffered = bufferVotes(deltas);
+            for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+                Origami merged = buffered.get(entry.getKey());
+                if (merged != null) {
+                    voteUpdateBroadcaster.publish(merged);
+                    voteHistory.record(merged.getOrigamiId(), entry.getValue());
+                    accepted += entry.getValue();
+                } else {
+                    unknown.add(entry.getKey());
+                }
+            }
+            return new BatchVoteResult(accepted, unknown);
+        }
+
+        Map<Long, Integer> numericDeltas = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            Long origamiId = parseId(entry.getKey());
+            if (origamiId == null) {
+                unknown.add(entry.getKey());
+            } else {
+                numericDeltas.merge(origamiId, entry.getValue(), Math::addExact);
+            }
+        }
+        if (numericDeltas.isEmpty()) {
+            return new BatchVoteResult(0, unknown);
+        }
+
+        Set<Long> updated = origamiStore.incrementVotesBatch(numericDeltas);
+        origamiStore.findAllById(updated).forEach(this::votesChanged);
+        for (Map.Entry<Long, Integer> entry : numericDeltas.entrySet()) {
+            if (updated.contains(entry.getKey())) {
+                voteHistory.record(entry.getKey(), entry.getValue());
+                accepted += entry.getValue();
+            } else {
+                unknown.add(String.valueOf(entry.getKey()));
             }
         }
+        return new BatchVoteResult(accepted, unknown);
     }
 
-    public Origami saveOrUpdateOrigami(Origami origami) {
-        if (isMongoProfile() && origamiMongoRepository != null) {
-            return origamiMongoRepository.save(origami);
+    /**
+     * Adds the deltas to the write-behind accumulator and returns the merged origami for each known ID.
+     * With the vote log enabled the votes are also appended to it and synced before this returns.
+     */
+    private Map<String, Origami> bufferVotes(Map<String, Integer> deltas) {
+        Map<String, Origami> buffered = new HashMap<>();
+        if (!voteLog.isEnabled()) {
+            deltas.forEach((origamiId, delta) -> bufferVote(origamiId, delta)
+                .ifPresent(merged -> buffered.put(origamiId, merged)));
+            return buffered;
+        }
+        Lock lock = voteLogLock.readLock();
+        lock.lock();
+        try {
+            long position = 0;
+            for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+                Optional<Origami> merged = bufferVote(entry.getKey(), entry.getValue());
+                if (merged.isPresent()) {
+                    buffered.put(entry.getKey(), merged.get());
+                    position = voteLog.append(merged.get().getOrigamiId(), entry.getValue());
+                }
+            }
+            if (!buffered.isEmpty()) {
+                voteLog.sync(position);
+            }
+            return buffered;
+        } catch (RuntimeException e) {
+            // Not acknowledged, so take the votes back out of the accumulator
+            buffered.forEach((origamiId, merged) -> voteAccumulator.retract(merged.getOrigamiId(), deltas.get(origamiId)));
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Keyed by the parsed ID, so "7" and "007" buffer into, and are read back from, the same counter
+    private Optional<Origami> bufferVote(String origamiId, int delta) {
+        Long longId = parseId(origamiId);
+        if (longId == null) {
+            return Optional.empty();
+        }
+        return voteAccumulator.record(longId, delta, this::findPersistedOrigami);
+    }
+
+    // Increments votes with a single server-side update instead of a read-modify-write
+    private Optional<Origami> incrementPersistedVotes(String origamiId, long delta) {
+        Long longId = parseId(origamiId);
+        if (longId == null) {
+            return Optional.empty();
+        }
+        Optional<Origami> updated = origamiStore.incrementVotes(longId, delta);
+        updated.ifPresent(this::votesChanged);
+        return updated;
+    }
+
+    // Hot origamis take the vote in one of their shards, leaving the origami row and its cache entry alone
+    private Optional<Origami> incrementShardedVotes(String origamiId) {
+        Long longId = parseId(origamiId);
+        if (longId == null) {
+            return Optional.empty();
+        }
+        int shard = shardedVoteCounters.shardFor(longId);
+        if (shard == ShardedVoteCounters.UNSHARDED) {
+            return incrementPersistedVotes(origamiId, 1);
+        }
+        Optional<Origami> voted = findPersistedOrigami(origamiId).map(origami -> {
+            origamiStore.incrementShard(longId, shard, 1);
+            return shardedVoteCounters.added(origami, 1);
+        });
+        voted.ifPresent(origami -> {
+            leaderboard.update(origami);
+            voteUpdateBroadcaster.publish(origami);
+        });
+        return voted;
+    }
+
+    // Caches the persisted origami but ranks and pushes it with votes not persisted yet, so neither goes backwards
+    private void votesChanged(Origami origami) {
+        origamiCache.put(origami);
+        Origami merged = mergePending(origami);
+        leaderboard.update(merged);
+        voteUpdateBroadcaster.publish(merged);
+    }
+
+    public List<Origami> getLeaderboard(int k) {
+        if (leaderboard.isReady()) {
+            return leaderboard.top(k);
+        }
+        // Cold path until the in-memory ranking has been built; served by the votes index
+        return getOrigamiPage(null, k, true);
+    }
+
+    // Ranked by votes within the window from the in-memory vote history, without reading vote data from the repository
+    public List<TrendingOrigami> getTrending(Duration window, int k) {
+        List<TrendingOrigami> trending = new ArrayList<>(k);
+        for (VoteHistory.Trend trend : voteHistory.trending(window, k)) {
+            getOrigamiById(String.valueOf(trend.origamiId()))
+                .ifPresent(origami -> trending.add(new TrendingOrigami(origami, trend.votes())));
+        }
+        return trending;
+    }
+
+    // Rebuilds the ranking from the repository on startup, then periodically to pick up votes taken by other replicas
+    @Scheduled(fixedDelayString = "${voting.leaderboard.refresh-interval-ms:60000}")
+    public void rebuildLeaderboard() {
+        forEachOrigami(leaderboard::update);
+        leaderboard.markReady();
+    }
+
+    @Scheduled(fixedDelayString = "${voting.write-behind.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flushPendingVotes() {
+        long sealed = 0;
+        Map<Long, Long> deltas;
+        if (voteLog.isEnabled()) {
+            Lock lock = voteLogLock.writeLock();
+            lock.lock();
+            try {
+                // The sealed segments then hold exactly the votes being drained
+                sealed = voteLog.seal();
+                deltas = voteAccumulator.drain();
+            } finally {
+                lock.unlock();
+            }
         } else {
-            return origamiRepository.save(origami);
+            deltas = voteAccumulator.drain();
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> failed = new HashMap<>();
+        long flushedBefore = sealed;
+        deltas.forEach((origamiId, delta) -> {
+            try {
+                // The checkpoint keeps a replay after a crash in this loop from applying the delta twice
+                Optional<Origami> updated = voteLog.isEnabled()
+                    ? origamiStore.incrementLoggedVotes(origamiId, delta, voteLog.getLogId(), flushedBefore)
+                    : origamiStore.incrementVotes(origamiId, delta);
+                if (updated.isEmpty()) {
+                    log.warn("Dropped {} pending votes for unknown origami ID: {}", delta, origamiId);
+                    return;
+                }
+                voteAccumulator.flushed(origamiId, delta, updated.get());
+                votesChanged(updated.get());
+            } catch (Exception e) {
+                voteAccumulator.restore(origamiId, delta);
+                failed.put(origamiId, delta);
+                log.error("Failed to flush pending votes for origami ID {}: {}", origamiId, e.getMessage(), e);
+            }
+        });
+        log.debug("Flushed pending votes for {} origamis", deltas.size());
+        if (voteLog.isEnabled()) {
+            truncateVoteLog(sealed, failed);
         }
     }
 
-    public int getVotes(String origamiId) {
-        Optional<Origami> origamiOpt = getOrigamiById(origamiId);
-        return origamiOpt.map(Origami::getVotes).orElse(0);
+    // Votes that failed to flush are still pending, so they are logged again before the sealed segments go
+    private void truncateVoteLog(long sealed, Map<Long, Long> failed) {
+        try {
+            long position = 0;
+            for (Map.Entry<Long, Long> entry : failed.entrySet()) {
+                position = voteLog.append(entry.getKey(), entry.getValue());
+            }
+            voteLog.sync(position);
+            voteLog.deleteBefore(sealed);
+        } catch (Exception e) {
+            log.error("Failed to truncate the vote log, keeping sealed segments: {}", e.getMessage(), e);
+        }
     }
 
-    private boolean isMongoProfile() {
-        String[] profiles = env.getActiveProfiles();
-        for (String profile : profiles) {
-            if ("mongo".equalsIgnoreCase(profile)) {
-                return true;
+    /**
+     * Applies votes logged but not flushed before the last shutdown or crash. Segments an origami's
+     * checkpoint says were already flushed for it are skipped, so a crash part way through a flush
+     * does not count its votes twice.
+     */
+    @PostConstruct
+    public void replayVoteLog() {
+        if (!voteLog.isEnabled()) {
+            return;
+        }
+        if (voteLog.getPreviousLogId() != null) {
+            origamiStore.deleteVoteLogCheckpoints(voteLog.getPreviousLogId());
+        }
+        Map<Long, Map<Long, Long>> segments = voteLog.recoverSegments();
+        long next = voteLog.seal();
+        if (!segments.isEmpty()) {
+            Map<Long, Long> checkpoints = origamiStore.voteLogCheckpoints(voteLog.getLogId());
+            Map<Long, Long> logged = new HashMap<>();
+            segments.forEach((segmentIndex, deltas) -> deltas.forEach((origamiId, delta) -> {
+                if (segmentIndex >= checkpoints.getOrDefault(origamiId, 0L)) {
+                    logged.merge(origamiId, delta, Long::sum);
+                }
+            }));
+            int updated = 0;
+            for (Map.Entry<Long, Long> entry : logged.entrySet()) {
+                if (origamiStore.incrementLoggedVotes(entry.getKey(), entry.getValue(), voteLog.getLogId(), next).isPresent()) {
+                    updated++;
+                }
+            }
+            log.info("Replayed logged votes for {} origamis", updated);
+            if (updated < logged.size()) {
+                log.warn("Dropped logged votes for {} unknown origamis", logged.size() - updated);
+            }
+        }
+        voteLog.deleteBefore(next);
+    }
+
+    // Origami IDs are non-negative longs, so anything else is an unknown ID rather than a parse failure
+    private static Long parseId(String origamiId) {
+        if (origamiId == null || origamiId.isEmpty() || origamiId.length() > 18) {
+            return null;
+        }
+        long id = 0;
+        for (int i = 0; i < origamiId.length(); i++) {
+            char c = origamiId.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
             }
+            id = id * 10 + (c - '0');
         }
-        return false;
+        return id;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Storage for origamis and their vote counts, keyed by the numeric origami ID both backends use.
+ * MongoDB documents also carry a generated {@code _id}, since {@code origamiId} is mapped as a
+ * plain field there.
+ * Exactly one implementation is active, chosen by profile at startup: JPA by default, MongoDB
+ * under {@code mongo}, or an in-memory map under {@code memory} for tests and benchmarks.
+ */
+public interface OrigamiStore {
+
+    Optional<Origami> findById(long origamiId);
+
+    List<Origami> findAllById(Collection<Long> origamiIds);
+
+    // Looks up a non-numeric ID as a backend document ID; only MongoDB documents have one
+    default Optional<Origami> findByDocumentId(String documentId) {
+        return Optional.empty();
+    }
+
+    List<Origami> findAll();
+
+    // Keyset page after the given origami (null for the first page), ordered by ID or by votes
+    List<Origami> findPage(Long after, int limit, boolean sortByVotes);
+
+    // Hands every origami to the action in ID order without materializing the whole store
+    void forEach(Consumer<Origami> action);
+
+    Origami save(Origami origami);
+
+    // Names by ID, for diffing the catalogue without loading vote counts
+    Map<Long, String> findAllNames();
+
+    // Inserts missing origamis with no votes and renames existing ones, keeping their votes, in one round-trip
+    void upsertNames(Map<Long, String> names);
+
+    // Applies the delta server-side and returns the updated origami, or empty if the ID is unknown
+    Optional<Origami> incrementVotes(long origamiId, long delta);
+
+    /**
+     * Applies the delta like {@link #incrementVotes} and, in the same write, records that the segments of
+     * the given vote log before {@code flushedBefore} are flushed for this origami.
+     */
+    Optional<Origami> incrementLoggedVotes(long origamiId, long delta, String logId, long flushedBefore);
+
+    // For each origami, the first segment of the given vote log not flushed yet
+    Map<Long, Long> voteLogCheckpoints(String logId);
+
+    void deleteVoteLogCheckpoints(String logId);
+
+    // Applies all deltas in one round-trip and returns the IDs that matched an origami
+    Set<Long> incrementVotesBatch(Map<Long, Integer> deltas);
+
+    // Adds votes to one sub-counter of a hot origami instead of its own row, so concurrent voters do not queue on one lock
+    void incrementShard(long origamiId, int shard, int delta);
+
+    // The origami's votes plus those in its sub-counters not folded in yet, or empty if the ID is unknown
+    Optional<Long> totalVotes(long origamiId);
+
+    // Moves the votes of all sub-counters into their origamis and returns the IDs that changed
+    Set<Long> foldShards();
+
+    long count();
+}
@@ -1,84 +1,337 @@
 package com.crafty.voting.service;
 
 import com.crafty.voting.config.AppProperties;
+import com.crafty.voting.config.VotingProperties;
 import com.crafty.voting.model.Origami;
 import com.crafty.voting.model.CatalogueProductDTO;
-import com.crafty.voting.repository.jpa.OrigamiRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
-import java.util.Collections;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class OrigamiSynchronizationService {
 
     private static final Logger log = LoggerFactory.getLogger(OrigamiSynchronizationService.class);
 
+    // Inserts and renames are upserted in batches of this size while the catalogue streams in
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    static final String SYNC_LEASE = "catalogue-sync";
+
     @Autowired
-    private OrigamiRepository origamiRepository;
+    private OrigamiStore origamiStore;
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private OrigamiCache origamiCache;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private VotingMetrics votingMetrics;
+
+    @Autowired
+    private VotingProperties votingProperties;
+
     private final String catalogueServiceUrl;
 
-    public OrigamiSynchronizationService(OrigamiRepository origamiRepository, RestTemplate restTemplate, AppProperties appProperties) {
-        this.origamiRepository = origamiRepository;
+    private final AppProperties.Retry retry;
+
+    private final CatalogueCircuitBreaker circuitBreaker;
+
+    private final CatalogueProductReader productReader;
+
+    // Validators of the last catalogue response that was applied successfully
+    private volatile String catalogueETag;
+    private volatile String catalogueLastModified;
+
+    private final AtomicBoolean synchronizing = new AtomicBoolean();
+
+    // When the running cycle last acquired the sync lease; 0 outside a cycle
+    private volatile long leaseRenewedAt;
+
+    public OrigamiSynchronizationService(OrigamiStore origamiStore, RestTemplate restTemplate, AppProperties appProperties,
+                                         ObjectMapper objectMapper) {
+        this.origamiStore = origamiStore;
         this.restTemplate = restTemplate;
         this.catalogueServiceUrl = appProperties.getServiceUrl();
+        this.retry = appProperties.getRetry();
+        this.circuitBreaker = new CatalogueCircuitBreaker(appProperties.getCircuitBreaker().getFailureThreshold(),
+            appProperties.getCircuitBreaker().getOpenDurationMs());
+        this.productReader = new CatalogueProductReader(objectMapper.getFactory());
     }
 
+    // Only the replica holding the sync lease fetches; the others see its writes through the shared
+    // database when their caches expire and their leaderboards are rebuilt
     @Scheduled(fixedRate = 60000) // 1 minute = 60000 ms
     public void synchronizeOrigamis() {
-    try {
-        List<CatalogueProductDTO> catalogueProducts = fetchOrigamisFromCatalogueService();
-        for (CatalogueProductDTO product : catalogueProducts) {
-            if (product.getId() != null) { // Check if ID is not null
-                Optional<Origami> existingOrigami = origamiRepository.findById(product.getId());
-                if (!existingOrigami.isPresent()) {
-                    Origami newOrigami = new Origami();
-                    newOrigami.setOrigamiId(product.getId());
-                    newOrigami.setName(product.getName());
-                    newOrigami.setVotes(0); // Initialize with 0 votes
-                    origamiRepository.save(newOrigami);
-                    log.info("Added new origami: {} with ID: {}", product.getName(), product.getId());
-                } else {
-                    Origami updatedOrigami = existingOrigami.get();
-                    updatedOrigami.setName(product.getName());
-                    // Preserve existing votes
-                    origamiRepository.save(updatedOrigami);
-                    log.info("Updated existing origami: {} with ID: {}", product.getName(), product.getId());
+        // Lease renewal succeeds for the same owner, so it cannot stop a second cycle in this JVM
+        if (!synchronizing.compareAndSet(false, true)) {
+            log.debug("Catalogue synchronization already running, skipping");
+            return;
+        }
+        try {
+            synchronizeUnderLease();
+        } finally {
+            leaseRenewedAt = 0;
+            synchronizing.set(false);
+        }
+    }
+
+    private void synchronizeUnderLease() {
+        // Checked before the lease so that a replica that cannot reach the catalogue lets its lease lapse
+        if (!circuitBreaker.allowRequest()) {
+            log.debug("Catalogue circuit breaker is open, skipping synchronization");
+            return;
+        }
+        try {
+            if (!leaseManager.tryAcquire(SYNC_LEASE)) {
+                log.debug("Catalogue sync lease is held by another replica, skipping synchronization");
+                return;
+            }
+            leaseRenewedAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            log.error("Failed to acquire catalogue sync lease: " + e.getMessage(), e);
+            return;
+        }
+        try {
+            CatalogueResponse response = fetchAndApplyCatalogue();
+            if (response == null) {
+                circuitBreaker.recordFailure();
+                if (circuitBreaker.getState() == CatalogueCircuitBreaker.State.OPEN) {
+                    log.warn("Catalogue service unavailable, suspending synchronization for {} ms",
+                        circuitBreaker.getOpenDurationMs());
                 }
-            } else {
-                log.warn("Skipped product with null ID");
+                return;
             }
+            circuitBreaker.recordSuccess();
+            votingMetrics.catalogueSynced();
+            if (response.notModified()) {
+                log.debug("Catalogue unchanged since last synchronization");
+                return;
+            }
+            catalogueETag = response.eTag();
+            catalogueLastModified = response.lastModified();
+        } catch (SyncLeaseLostException e) {
+            log.warn("Lost the catalogue sync lease during synchronization, abandoning this cycle");
+        } catch (Exception e) {
+            log.error("Error during synchronization of origamis: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Renews the sync lease once a third of its TTL has passed since the last renewal, so a cycle
+     * slower than the TTL keeps it, and stops the cycle if another replica has taken it over.
+     * Does nothing outside a scheduled cycle, where no lease is held.
+     */
+    private void renewLeaseIfDue() {
+        long now = System.currentTimeMillis();
+        if (leaseRenewedAt == 0 || now - leaseRenewedAt < votingProperties.getLease().getTtlMs() / 3) {
+            return;
+        }
+        if (!leaseManager.tryAcquire(SYNC_LEASE)) {
+            throw new SyncLeaseLostException();
         }
-    } catch (Exception e) {
-        log.error("Error during synchronization of origamis: " + e.getMessage(), e);
+        leaseRenewedAt = now;
     }
+
+    // Hands the lease over on shutdown instead of making the other replicas wait for it to expire
+    @PreDestroy
+    public void releaseSyncLease() {
+        try {
+            leaseManager.release(SYNC_LEASE);
+        } catch (Exception e) {
+            log.warn("Failed to release catalogue sync lease: {}", e.getMessage());
+        }
+    }
+
+    // Diffs the catalogue against stored names and writes only new or renamed origamis
+    public void applyCatalogue(List<CatalogueProductDTO> catalogueProducts) {
+        CatalogueDiff diff = new CatalogueDiff();
+        catalogueProducts.forEach(diff::accept);
+        diff.finish();
     }
 
+    private record CatalogueResponse(boolean notModified, String eTag, String lastModified) {}
+
+    /**
+     * Applies products as they are parsed. Only the stored names are held in memory; inserts and
+     * renames are upserted together, one round-trip per {@link #WRITE_BATCH_SIZE} changed products.
+     */
+    private class CatalogueDiff {
+
+        private final Map<Long, String> existingNames;
+        private final List<Origami> inserts = new ArrayList<>();
+        private final Map<Long, String> renames = new LinkedHashMap<>();
+        private int total;
+        private int added;
+        private int renamed;
+        private int skipped;
+
+        CatalogueDiff() {
+            existingNames = origamiStore.findAllNames();
+        }
+
+        void accept(CatalogueProductDTO product) {
+            renewLeaseIfDue();
+            total++;
+            if (product.getId() == null) {
+                skipped++;
+                return;
+            }
+            if (!existingNames.containsKey(product.getId())) {
+                Origami newOrigami = new Origami();
+                newOrigami.setOrigamiId(product.getId());
+                newOrigami.setName(product.getName());
+                newOrigami.setVotes(0); // Initialize with 0 votes
+                inserts.add(newOrigami);
+                existingNames.put(product.getId(), product.getName());
+            } else if (!Objects.equals(existingNames.get(product.getId()), product.getName())) {
+                renames.put(product.getId(), product.getName());
+                existingNames.put(product.getId(), product.getName());
+            }
+            if (inserts.size() + renames.size() >= WRITE_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            if (skipped > 0) {
+                log.warn("Skipped {} products with null ID", skipped);
+            }
+            int unchanged = total - added - renamed - skipped;
+            votingMetrics.catalogueDiffed(added, renamed, unchanged, skipped);
+            log.info("Synchronized {} catalogue products: {} added, {} renamed, {} unchanged",
+                total, added, renamed, unchanged);
+        }
+
+        private void flush() {
+            if (inserts.isEmpty() && renames.isEmpty()) {
+                return;
+            }
+            Map<Long, String> names = new LinkedHashMap<>();
+            inserts.forEach(origami -> names.put(origami.getOrigamiId(), origami.getName()));
+            names.putAll(renames);
+            origamiStore.upsertNames(names);
+            for (Origami inserted : inserts) {
+                origamiCache.put(inserted);
+                leaderboard.update(inserted);
+            }
+            renames.forEach((origamiId, name) -> {
+                origamiCache.evict(origamiId);
+                leaderboard.rename(origamiId, name);
+            });
+            added += inserts.size();
+            renamed += renames.size();
+            inserts.clear();
+            renames.clear();
+        }
+    }
 
+    // Another replica took the sync lease over mid-cycle; its own cycle applies the catalogue instead
+    private static final class SyncLeaseLostException extends RuntimeException {
+        SyncLeaseLostException() {
+            super("Catalogue sync lease lost", null, false, false);
+        }
+    }
 
+    // A payload that is not a JSON array of products; fetching it again would not help
+    private static final class MalformedCatalogueException extends RestClientException {
+        MalformedCatalogueException(JsonProcessingException cause) {
+            super("Malformed catalogue payload: " + cause.getOriginalMessage(), cause);
+        }
+    }
 
-    private List<CatalogueProductDTO> fetchOrigamisFromCatalogueService() {
-    try {
-        CatalogueProductDTO[] productsArray = restTemplate.getForObject(catalogueServiceUrl, CatalogueProductDTO[].class);
-        List<CatalogueProductDTO> products = Arrays.asList(productsArray);
-        products.forEach(product -> log.info("Fetched product with ID: {} and name: {}", product.getId(), product.getName()));
-        return products;
-    } catch (RestClientException e) {
-        log.error("Failed to fetch origamis from catalogue service: " + e.getMessage(), e);
-        return Collections.emptyList();
+    /**
+     * Streams the catalogue straight into a {@link CatalogueDiff}. Retries I/O errors and 5xx responses
+     * but not malformed payloads; null means the catalogue could not be fetched this cycle. A retry after a partial read re-applies
+     * the products already written, which the diff then treats as unchanged.
+     */
+    private CatalogueResponse fetchAndApplyCatalogue() {
+        for (int attempt = 1; ; attempt++) {
+            Timer.Sample sample = votingMetrics.startTimer();
+            try {
+                CatalogueResponse catalogueResponse = restTemplate.execute(catalogueServiceUrl, HttpMethod.GET, request -> {
+                    if (catalogueETag != null) {
+                        request.getHeaders().setIfNoneMatch(catalogueETag);
+                    }
+                    if (catalogueLastModified != null) {
+                        request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, catalogueLastModified);
+                    }
+                }, response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        return new CatalogueResponse(true, null, null);
+                    }
+                    CatalogueDiff diff = new CatalogueDiff();
+                    long bytes;
+                    try {
+                        bytes = productReader.read(response.getBody(), diff::accept);
+                    } catch (JsonProcessingException e) {
+                        // Otherwise RestTemplate reports it as a ResourceAccessException, which would be retried
+                        throw new MalformedCatalogueException(e);
+                    }
+                    votingMetrics.catalogueRead(diff.total, bytes);
+                    diff.finish();
+                    return new CatalogueResponse(false, response.getHeaders().getETag(),
+                        response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+                });
+                votingMetrics.catalogueFetched(sample, catalogueResponse.notModified() ? "not_modified" : "success");
+                return catalogueResponse;
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                votingMetrics.catalogueFetched(sample, "failure");
+                if (attempt >= retry.getMaxAttempts()) {
+                    log.error("Failed to fetch origamis from catalogue service after {} attempts: {}", attempt, e.getMessage());
+                    return null;
+                }
+                renewLeaseIfDue();
+                long backoffMs = backoffMs(attempt);
+                log.warn("Catalogue fetch attempt {} failed, retrying in {} ms: {}", attempt, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            } catch (RestClientException e) {
+                votingMetrics.catalogueFetched(sample, "failure");
+                log.error("Failed to fetch origamis from catalogue service: " + e.getMessage(), e);
+                return null;
+            }
+        }
     }
+
+    // Full jitter: a random wait up to the exponential backoff, so replicas do not retry in lockstep
+    private long backoffMs(int attempt) {
+        long ceiling = retry.getInitialBackoffMs() << Math.min(attempt - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(ceiling, retry.getMaxBackoffMs()) + 1);
     }
 
 }
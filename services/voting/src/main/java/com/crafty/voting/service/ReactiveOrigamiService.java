@@ -0,0 +1,192 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.BatchVoteResult;
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.TrendingOrigami;
+import com.crafty.voting.model.VoteDelta;
+import com.crafty.voting.repository.reactive.ReactiveOrigamiMongoRepository;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link OrigamiService} for the reactive profile. Votes are applied with
+ * $inc on the server, and listings are streamed from the Mongo cursor with backpressure.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOrigamiService {
+
+    private static final Sort BY_ID = Sort.by(Sort.Order.asc("origamiId"));
+    private static final Sort BY_VOTES = Sort.by(Sort.Order.desc("votes"), Sort.Order.asc("origamiId"));
+
+    @Autowired
+    private ReactiveOrigamiMongoRepository origamiRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private VoteUpdateBroadcaster voteUpdateBroadcaster;
+
+    @Autowired
+    private VotingMetrics votingMetrics;
+
+    @Autowired
+    private VoteHistory voteHistory;
+
+    public Mono<Origami> getOrigamiById(String id) {
+        try {
+            return origamiRepository.findByOrigamiId(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            return Mono.empty();
+        }
+    }
+
+    public Mono<Long> getVotes(String origamiId) {
+        return getOrigamiById(origamiId).map(Origami::getVotes).defaultIfEmpty(0L);
+    }
+
+    public Flux<Origami> getAllOrigamis() {
+        return mongoTemplate.find(new Query().with(BY_ID), Origami.class);
+    }
+
+    // Keyset pagination: returns up to limit origamis after the cursor origami (null for the first page)
+    public Flux<Origami> getOrigamiPage(Long after, int limit, boolean sortByVotes) {
+        Query query = new Query().limit(limit).with(sortByVotes ? BY_VOTES : BY_ID);
+        if (after == null) {
+            return mongoTemplate.find(query, Origami.class);
+        }
+        if (!sortByVotes) {
+            return mongoTemplate.find(query.addCriteria(Criteria.where("origamiId").gt(after)), Origami.class);
+        }
+        return origamiRepository.findByOrigamiId(after).flatMapMany(cursor -> mongoTemplate.find(query.addCriteria(
+            new Criteria().orOperator(
+                Criteria.where("votes").lt(cursor.getVotes()),
+                Criteria.where("votes").is(cursor.getVotes()).and("origamiId").gt(cursor.getOrigamiId()))),
+            Origami.class));
+    }
+
+    public Flux<Origami> getLeaderboard(int k) {
+        if (leaderboard.isReady()) {
+            return Flux.fromIterable(leaderboard.top(k));
+        }
+        return getOrigamiPage(null, k, true);
+    }
+
+    public Mono<Origami> saveOrUpdateOrigami(Origami origami) {
+        return origamiRepository.save(origami).doOnNext(this::votesChanged);
+    }
+
+    public Mono<Origami> recordVote(String origamiId) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = votingMetrics.startTimer();
+            return incrementVotes(origamiId, 1)
+                .doOnNext(voted -> voteHistory.record(voted.getOrigamiId(), 1))
+                .doOnSuccess(voted -> votingMetrics.voteRecorded(sample, VotingMetrics.SINGLE, voted != null ? 1 : 0, voted != null ? 0 : 1))
+                .doOnError(e -> votingMetrics.voteFailed(sample, VotingMetrics.SINGLE, 1));
+        });
+    }
+
+    public Mono<Origami> incrementVotes(String origamiId, int delta) {
+        Long longId;
+        try {
+            longId = Long.valueOf(origamiId);
+        } catch (NumberFormatException e) {
+            return Mono.empty();
+        }
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("origamiId").is(longId)),
+                new Update().inc("votes", (long) delta), FindAndModifyOptions.options().returnNew(true), Origami.class)
+            .doOnNext(this::votesChanged);
+    }
+
+    public Mono<BatchVoteResult> recordVotes(List<VoteDelta> votes) {
+        long requested = votes.stream().mapToLong(VoteDelta::getDelta).sum();
+        return Mono.defer(() -> {
+            Timer.Sample sample = votingMetrics.startTimer();
+            return applyVotes(votes)
+                .doOnSuccess(result -> votingMetrics.voteRecorded(sample, VotingMetrics.BATCH, result.getAccepted(), requested - result.getAccepted()))
+                .doOnError(e -> votingMetrics.voteFailed(sample, VotingMetrics.BATCH, requested));
+        });
+    }
+
+    private Mono<BatchVoteResult> applyVotes(List<VoteDelta> votes) {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (VoteDelta vote : votes) {
+            try {
+                deltas.merge(Long.valueOf(vote.getOrigamiId()), vote.getDelta(), Math::addExact);
+            } catch (NumberFormatException e) {
+                unknown.add(vote.getOrigamiId());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return Mono.just(new BatchVoteResult(0, unknown));
+        }
+
+        Query existing = Query.query(Criteria.where("origamiId").in(deltas.keySet()));
+        existing.fields().include("origamiId");
+        return mongoTemplate.find(existing, Origami.class)
+            .map(Origami::getOrigamiId)
+            .collectList()
+            .flatMap(matched -> {
+                long accepted = 0;
+                for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+                    if (matched.contains(entry.getKey())) {
+                        voteHistory.record(entry.getKey(), entry.getValue());
+                        accepted += entry.getValue();
+                    } else {
+                        unknown.add(String.valueOf(entry.getKey()));
+                    }
+                }
+                BatchVoteResult result = new BatchVoteResult(accepted, unknown);
+                if (matched.isEmpty()) {
+                    return Mono.just(result);
+                }
+                ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Origami.class);
+                for (Long origamiId : matched) {
+                    bulk.updateOne(Query.query(Criteria.where("origamiId").is(origamiId)),
+                        new Update().inc("votes", deltas.get(origamiId).longValue()));
+                }
+                return bulk.execute()
+                    .thenMany(mongoTemplate.find(Query.query(Criteria.where("origamiId").in(matched)), Origami.class))
+                    .doOnNext(this::votesChanged)
+                    .then(Mono.just(result));
+            });
+    }
+
+    public Flux<TrendingOrigami> getTrending(Duration window, int k) {
+        return Flux.fromIterable(voteHistory.trending(window, k))
+            .concatMap(trend -> origamiRepository.findByOrigamiId(trend.origamiId())
+                .map(origami -> new TrendingOrigami(origami, trend.votes())));
+    }
+
+    public Mono<Long> count() {
+        return origamiRepository.count();
+    }
+
+    private void votesChanged(Origami origami) {
+        leaderboard.update(origami);
+        voteUpdateBroadcaster.publish(origami);
+    }
+}
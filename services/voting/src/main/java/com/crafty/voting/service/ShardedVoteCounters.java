@@ -0,0 +1,177 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.model.Origami;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads single votes for hot origamis over sub-counters so voters stop queueing on one row lock.
+ * Each replica measures the vote rate of the origamis it serves and doubles an origami's shard
+ * count while every shard takes more than votes-per-shard-per-second, measured every
+ * adjust-interval-ms, halving it again once the rate drops. Reads of a sharded origami return
+ * its origami votes plus shard votes, summed by the {@link OrigamiStore} and cached for
+ * sum-cache-ms. Shards are folded back into their origamis every fold-interval-ms, so pages,
+ * the leaderboard rebuild and other replicas catch up.
+ */
+@Component
+public class ShardedVoteCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedVoteCounters.class);
+
+    // Returned by shardFor when the vote should go to the origami row itself
+    public static final int UNSHARDED = -1;
+
+    private final OrigamiStore store;
+    private final OrigamiCache origamiCache;
+    private final VotingProperties.ShardedCounters properties;
+    private final long foldIntervalNanos;
+    private final LongSupplier nanoTime;
+
+    private final ConcurrentMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private volatile long lastAdjusted;
+
+    private static final class Counter {
+        final LongAdder recent = new LongAdder();
+        volatile int shards = 1;
+        volatile long lastShardWrite;
+        final AtomicLong total = new AtomicLong();
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile long totalLoadedAt;
+        volatile boolean totalLoaded;
+    }
+
+    @Autowired
+    public ShardedVoteCounters(OrigamiStore store, OrigamiCache origamiCache, VotingProperties votingProperties,
+                               @Value("${voting.sharded-counters.fold-interval-ms:1000}") long foldIntervalMs) {
+        this(store, origamiCache, votingProperties.getShardedCounters(), foldIntervalMs, System::nanoTime);
+    }
+
+    ShardedVoteCounters(OrigamiStore store, OrigamiCache origamiCache, VotingProperties.ShardedCounters properties,
+                        long foldIntervalMs, LongSupplier nanoTime) {
+        this.store = store;
+        this.origamiCache = origamiCache;
+        this.properties = properties;
+        this.foldIntervalNanos = TimeUnit.MILLISECONDS.toNanos(foldIntervalMs);
+        this.nanoTime = nanoTime;
+        this.lastAdjusted = nanoTime.getAsLong();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Counts the vote towards the origami's rate and picks a random shard for it, or UNSHARDED while it is not hot
+    public int shardFor(long origamiId) {
+        Counter counter = counters.computeIfAbsent(origamiId, id -> new Counter());
+        counter.recent.increment();
+        int shards = counter.shards;
+        return shards > 1 ? ThreadLocalRandom.current().nextInt(shards) : UNSHARDED;
+    }
+
+    // Called after votes went into a shard; returns the origami with its total including them
+    public Origami added(Origami origami, int delta) {
+        Counter counter = counters.computeIfAbsent(origami.getOrigamiId(), id -> new Counter());
+        long now = nanoTime.getAsLong();
+        counter.lastShardWrite = now;
+        long total = isFresh(counter, now) ? counter.total.addAndGet(delta) : load(counter, origami, delta, now);
+        return withVotes(origami, total);
+    }
+
+    // Replaces the votes of a sharded origami with its cached total; other origamis are returned as they are
+    public Origami merge(Origami origami) {
+        Counter counter = counters.get(origami.getOrigamiId());
+        long now = nanoTime.getAsLong();
+        if (counter == null || !isSharded(counter, now)) {
+            return origami;
+        }
+        long total = isFresh(counter, now) ? counter.total.get() : load(counter, origami, 0, now);
+        return withVotes(origami, total);
+    }
+
+    // Also while shard votes written just before the origami cooled down may not be folded yet
+    private boolean isSharded(Counter counter, long now) {
+        return counter.shards > 1 || now - counter.lastShardWrite < 2 * foldIntervalNanos;
+    }
+
+    private boolean isFresh(Counter counter, long now) {
+        return counter.totalLoaded && now - counter.totalLoadedAt < TimeUnit.MILLISECONDS.toNanos(properties.getSumCacheMs());
+    }
+
+    // One caller sums the shards while concurrent callers keep using the previous total, plus their own votes
+    private long load(Counter counter, Origami origami, int delta, long now) {
+        if (!counter.loading.compareAndSet(false, true)) {
+            return counter.totalLoaded ? counter.total.addAndGet(delta)
+                : store.totalVotes(origami.getOrigamiId()).orElse(origami.getVotes());
+        }
+        try {
+            long total = store.totalVotes(origami.getOrigamiId()).orElse(origami.getVotes());
+            counter.total.set(total);
+            counter.totalLoadedAt = now;
+            counter.totalLoaded = true;
+            return total;
+        } finally {
+            counter.loading.set(false);
+        }
+    }
+
+    int shards(long origamiId) {
+        Counter counter = counters.get(origamiId);
+        return counter == null ? 1 : counter.shards;
+    }
+
+    @Scheduled(fixedRateString = "${voting.sharded-counters.adjust-interval-ms:1000}")
+    public void adjustShards() {
+        long now = nanoTime.getAsLong();
+        double seconds = Math.max(now - lastAdjusted, 1) / 1e9;
+        lastAdjusted = now;
+        int threshold = properties.getVotesPerShardPerSecond();
+        counters.forEach((origamiId, counter) -> {
+            long votes = counter.recent.sumThenReset();
+            int shards = counter.shards;
+            double perShard = votes / seconds / shards;
+            if (perShard > threshold && shards < properties.getMaxShards()) {
+                counter.shards = Math.min(shards * 2, properties.getMaxShards());
+                log.debug("Spreading votes for origami {} over {} shards", origamiId, counter.shards);
+            } else if (perShard < threshold / 4.0 && shards > 1) {
+                counter.shards = shards / 2;
+            } else if (shards == 1 && votes == 0 && !isSharded(counter, now)) {
+                counters.remove(origamiId, counter);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${voting.sharded-counters.fold-interval-ms:1000}")
+    public void foldShards() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            // The cached origamis predate the fold, so they are reloaded with the folded votes
+            store.foldShards().forEach(origamiCache::evict);
+        } catch (RuntimeException e) {
+            log.error("Failed to fold vote shards: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Origami withVotes(Origami source, long votes) {
+        Origami copy = new Origami();
+        copy.setOrigamiId(source.getOrigamiId());
+        copy.setName(source.getName());
+        copy.setVotes(votes);
+        return copy;
+    }
+}
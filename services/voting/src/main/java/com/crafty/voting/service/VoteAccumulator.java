@@ -0,0 +1,125 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Buffers votes in striped counters keyed by origami ID until they are flushed to the repository.
+ * Each entry also keeps the last persisted snapshot so a vote does not need a database read.
+ * Votes handed to a flush stay counted until the snapshot that includes them replaces the old one,
+ * so reads never go backwards while a flush is in progress.
+ */
+@Component
+public class VoteAccumulator {
+
+    // A persisted origami and how many of the entry's recorded votes its count already includes
+    private record Snapshot(Origami persisted, long applied) {}
+
+    private static final class Entry {
+        // Every vote recorded for the origami; only shrinks when an unacknowledged vote is retracted
+        final LongAdder recorded = new LongAdder();
+        // Recorded votes handed to a flush so far
+        final AtomicLong drained = new AtomicLong();
+        volatile Snapshot snapshot;
+
+        Entry(Origami persisted) {
+            this.snapshot = new Snapshot(persisted, 0);
+        }
+
+        Origami visible() {
+            Snapshot current = snapshot;
+            return withVotes(current.persisted(), current.persisted().getVotes() + recorded.sum() - current.applied());
+        }
+    }
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Records {@code delta} votes for the given origami. The loader is only consulted the first
+     * time an ID is seen; unknown IDs are not buffered.
+     */
+    public Optional<Origami> record(long origamiId, long delta, LongFunction<Optional<Origami>> loader) {
+        Entry entry = entries.get(origamiId);
+        if (entry == null) {
+            Optional<Origami> loaded = loader.apply(origamiId);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            Entry created = new Entry(loaded.get());
+            entry = entries.putIfAbsent(origamiId, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        entry.recorded.add(delta);
+        return Optional.of(entry.visible());
+    }
+
+    public Origami merge(Origami persisted) {
+        Entry entry = entries.get(persisted.getOrigamiId());
+        if (entry == null) {
+            return persisted;
+        }
+        Snapshot current = entry.snapshot;
+        long unapplied = entry.recorded.sum() - current.applied();
+        return unapplied == 0 ? persisted : withVotes(persisted, persisted.getVotes() + unapplied);
+    }
+
+    /**
+     * Returns the votes of every origami not handed to a flush yet. Votes recorded while
+     * draining are left for the next flush; report the outcome with {@link #flushed} or
+     * {@link #restore}.
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        entries.forEach((origamiId, entry) -> {
+            long recorded = entry.recorded.sum();
+            long delta = recorded - entry.drained.getAndSet(recorded);
+            if (delta != 0) {
+                deltas.put(origamiId, delta);
+            }
+        });
+        return deltas;
+    }
+
+    // The drained delta is now in persisted, which replaces the snapshot reads start from
+    public void flushed(long origamiId, long delta, Origami persisted) {
+        Entry entry = entries.get(origamiId);
+        if (entry != null) {
+            entry.snapshot = new Snapshot(persisted, entry.snapshot.applied() + delta);
+        }
+    }
+
+    // Hands a drained delta that could not be flushed to the next flush
+    public void restore(long origamiId, long delta) {
+        Entry entry = entries.get(origamiId);
+        if (entry != null) {
+            entry.drained.addAndGet(-delta);
+        }
+    }
+
+    // Takes back votes that were recorded but not acknowledged; they must not have been drained
+    public void retract(long origamiId, long delta) {
+        Entry entry = entries.get(origamiId);
+        if (entry != null) {
+            entry.recorded.add(-delta);
+        }
+    }
+
+    private static Origami withVotes(Origami source, long votes) {
+        Origami copy = new Origami();
+        copy.setOrigamiId(source.getOrigamiId());
+        copy.setName(source.getName());
+        copy.setVotes(votes);
+        return copy;
+    }
+}
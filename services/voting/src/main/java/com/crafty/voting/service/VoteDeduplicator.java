@@ -0,0 +1,106 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which client voted for which origami in two Bloom filters, one for the current window
+ * and one for the previous. A vote is a repeat if either filter might contain it, so repeats are
+ * caught for one to two windows. False positives reject a first vote at the configured rate.
+ */
+@Component
+public class VoteDeduplicator {
+
+    private final int bits;
+    private final int hashes;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    public VoteDeduplicator(VotingProperties votingProperties) {
+        VotingProperties.Dedupe dedupe = votingProperties.getDedupe();
+        double n = dedupe.getExpectedVotes();
+        double p = dedupe.getFalsePositiveRate();
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round(bits / n * Math.log(2)));
+        if (dedupe.isEnabled()) {
+            this.current = new BloomFilter(bits);
+            this.previous = new BloomFilter(bits);
+        }
+    }
+
+    // True if the client has probably voted for this origami within the last one to two windows
+    public boolean isRepeat(String client, String origamiId) {
+        long h1 = hash(client, origamiId);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        return current.mightContain(h1, h2, hashes) || previous.mightContain(h1, h2, hashes);
+    }
+
+    // Called once the vote has been counted, so a vote that failed can be retried
+    public void record(String client, String origamiId) {
+        long h1 = hash(client, origamiId);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        current.put(h1, h2, hashes);
+    }
+
+    @Scheduled(fixedRateString = "${voting.dedupe.window-ms:3600000}", initialDelayString = "${voting.dedupe.window-ms:3600000}")
+    public void rotate() {
+        if (current != null) {
+            previous = current;
+            current = new BloomFilter(bits);
+        }
+    }
+
+    private static long hash(String client, String origamiId) {
+        // FNV-1a over both keys with a separator, finished with a 64-bit mix
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < client.length(); i++) {
+            hash = (hash ^ client.charAt(i)) * 0x100000001B3L;
+        }
+        hash = (hash ^ 0xFFFF) * 0x100000001B3L;
+        for (int i = 0; i < origamiId.length(); i++) {
+            hash = (hash ^ origamiId.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+
+        BloomFilter(int bits) {
+            this.words = new AtomicLongArray((bits + 63) / 64);
+            this.bits = bits;
+        }
+
+        boolean mightContain(long h1, long h2, int hashes) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long h1, long h2, int hashes) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds abusive votes before they reach OrigamiService: first by client rate, then by repeat
+ * votes for the same origami. Both checks are off unless configured. A vote only counts as seen
+ * once {@link #complete} reports it counted; until then a concurrent repeat is rejected too.
+ */
+@Component
+public class VoteGuard {
+
+    public enum Decision { ACCEPTED, RATE_LIMITED, DUPLICATE }
+
+    private final boolean rateLimited;
+    private final boolean deduplicated;
+    private final VoteRateLimiter rateLimiter;
+    private final VoteDeduplicator deduplicator;
+    private final VotingMetrics votingMetrics;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public VoteGuard(VotingProperties votingProperties, VoteRateLimiter rateLimiter,
+                     VoteDeduplicator deduplicator, VotingMetrics votingMetrics) {
+        this.rateLimited = votingProperties.getRateLimit().isEnabled();
+        this.deduplicated = votingProperties.getDedupe().isEnabled();
+        this.rateLimiter = rateLimiter;
+        this.deduplicator = deduplicator;
+        this.votingMetrics = votingMetrics;
+    }
+
+    public boolean isEnabled() {
+        return rateLimited || deduplicated;
+    }
+
+    public boolean isRateLimited() {
+        return rateLimited;
+    }
+
+    // An ACCEPTED vote must be followed by complete once its outcome is known
+    public Decision check(String client, String origamiId) {
+        if (rateLimited && !rateLimiter.tryAcquire(client)) {
+            votingMetrics.voteShed("rate_limited");
+            return Decision.RATE_LIMITED;
+        }
+        if (deduplicated) {
+            String key = key(client, origamiId);
+            if (!inFlight.add(key)) {
+                votingMetrics.voteShed("duplicate");
+                return Decision.DUPLICATE;
+            }
+            if (deduplicator.isRepeat(client, origamiId)) {
+                inFlight.remove(key);
+                votingMetrics.voteShed("duplicate");
+                return Decision.DUPLICATE;
+            }
+        }
+        return Decision.ACCEPTED;
+    }
+
+    // Batches carry deltas rather than one vote per origami, so they are only rate limited, one token per request
+    public Decision checkBatch(String client) {
+        if (rateLimited && !rateLimiter.tryAcquire(client)) {
+            votingMetrics.voteShed("rate_limited");
+            return Decision.RATE_LIMITED;
+        }
+        return Decision.ACCEPTED;
+    }
+
+    // Remembers the vote as seen only if it was counted, so a retry after a 404, 5xx or timeout is not a repeat
+    public void complete(String client, String origamiId, boolean counted) {
+        if (!deduplicated) {
+            return;
+        }
+        if (counted) {
+            deduplicator.record(client, origamiId);
+        }
+        inFlight.remove(key(client, origamiId));
+    }
+
+    private static String key(String client, String origamiId) {
+        return client + '\n' + origamiId;
+    }
+
+    public long retryAfterSeconds() {
+        return rateLimiter.retryAfterSeconds();
+    }
+}
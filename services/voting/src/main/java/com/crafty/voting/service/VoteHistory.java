@@ -0,0 +1,235 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.VoteBucket;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recent votes per origami in two rings: one bucket per minute for the last hour and one per hour
+ * for the last week. Trending windows of up to an hour are summed from the minute ring, longer
+ * ones from the hour ring. Hourly buckets are added to the {@link VoteHistoryStore} periodically
+ * and read back, so the hour ring also reflects votes taken by other replicas. Minute buckets are
+ * never persisted, so short windows only count the votes this replica took; see {@link #scope}.
+ */
+@Component
+public class VoteHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteHistory.class);
+
+    static final int MINUTES = 60;
+    static final int HOURS = 7 * 24;
+    public static final Duration MAX_WINDOW = Duration.ofHours(HOURS);
+
+    public record Trend(long origamiId, long votes) {}
+
+    // Which votes a window counts: this replica's only, or those of every replica
+    public enum Scope { REPLICA, CLUSTER }
+
+    private record BucketKey(long origamiId, long epochHour) {}
+
+    private static final Comparator<Trend> BY_VOTES = Comparator.comparingLong(Trend::votes)
+        .thenComparing(Comparator.comparingLong(Trend::origamiId).reversed());
+
+    private final VoteHistoryStore store;
+    private final Clock clock;
+
+    private final ConcurrentMap<Long, Series> series = new ConcurrentHashMap<>();
+    private final ConcurrentMap<BucketKey, LongAdder> unpersisted = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VoteHistory(VoteHistoryStore store) {
+        this(store, Clock.systemUTC());
+    }
+
+    VoteHistory(VoteHistoryStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    public void record(long origamiId, long votes) {
+        long minute = clock.millis() / 60_000;
+        series.computeIfAbsent(origamiId, id -> new Series()).add(minute, votes);
+        unpersisted.computeIfAbsent(new BucketKey(origamiId, minute / MINUTES), key -> new LongAdder()).add(votes);
+    }
+
+    // The k origamis with the most votes within the window, most first
+    public List<Trend> trending(Duration window, int k) {
+        long minute = clock.millis() / 60_000;
+        PriorityQueue<Trend> top = new PriorityQueue<>(k + 1, BY_VOTES);
+        series.forEach((origamiId, origamiSeries) -> {
+            long votes = origamiSeries.votesWithin(window, minute);
+            if (votes > 0) {
+                top.add(new Trend(origamiId, votes));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        });
+        List<Trend> ranked = new ArrayList<>(top);
+        ranked.sort(BY_VOTES.reversed());
+        return ranked;
+    }
+
+    public static Scope scope(Duration window) {
+        return windowMinutes(window) <= MINUTES ? Scope.REPLICA : Scope.CLUSTER;
+    }
+
+    private static long windowMinutes(Duration window) {
+        return Math.max(1, (window.toSeconds() + 59) / 60);
+    }
+
+    // Adds this replica's new votes to the stored hourly buckets, then reloads the ones that can still change
+    @Scheduled(fixedDelayString = "${voting.history.persist-interval-ms:60000}",
+        initialDelayString = "${voting.history.persist-interval-ms:60000}")
+    public void persist() {
+        long currentHour = clock.millis() / 3_600_000;
+        for (Map.Entry<BucketKey, LongAdder> entry : unpersisted.entrySet()) {
+            BucketKey key = entry.getKey();
+            long votes = entry.getValue().sum();
+            if (votes == 0) {
+                if (key.epochHour() < currentHour) {
+                    unpersisted.remove(key);
+                }
+                continue;
+            }
+            try {
+                store.addVotes(key.origamiId(), key.epochHour(), votes);
+                entry.getValue().add(-votes);
+            } catch (Exception e) {
+                log.error("Failed to persist vote history: {}", e.getMessage(), e);
+                return;
+            }
+        }
+        // Other replicas still add to the previous hour for up to one persist interval after it ends
+        load(currentHour - 1);
+        series.values().removeIf(origamiSeries -> origamiSeries.idleSince(currentHour - HOURS));
+    }
+
+    // The whole week once on startup; afterwards persist only reloads the latest hours
+    @PostConstruct
+    public void load() {
+        load(clock.millis() / 3_600_000 - HOURS + 1);
+    }
+
+    private void load(long fromHour) {
+        try {
+            for (VoteBucket bucket : store.findSince(fromHour)) {
+                LongAdder pending = unpersisted.get(new BucketKey(bucket.getOrigamiId(), bucket.getEpochHour()));
+                long votes = bucket.getVotes() + (pending == null ? 0 : pending.sum());
+                series.computeIfAbsent(bucket.getOrigamiId(), id -> new Series()).setHour(bucket.getEpochHour(), votes);
+            }
+        } catch (Exception e) {
+            log.error("Failed to load vote history: {}", e.getMessage(), e);
+        }
+    }
+
+    // Buckets past the hour ring are never read again; every replica runs this, which is harmless
+    @Scheduled(fixedDelayString = "${voting.history.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        try {
+            long deleted = store.deleteBefore(clock.millis() / 3_600_000 - HOURS + 1);
+            if (deleted > 0) {
+                log.debug("Deleted {} expired vote buckets", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete expired vote buckets: {}", e.getMessage(), e);
+        }
+    }
+
+    private static final class Series {
+
+        private final Ring minutes = new Ring(MINUTES);
+        private final Ring hours = new Ring(HOURS);
+
+        synchronized void add(long minute, long votes) {
+            minutes.add(minute, votes);
+            hours.add(minute / MINUTES, votes);
+        }
+
+        synchronized void setHour(long hour, long votes) {
+            hours.set(hour, votes);
+        }
+
+        // Whole minutes up to an hour, otherwise whole hours including the current partial one
+        synchronized long votesWithin(Duration window, long minute) {
+            long windowMinutes = windowMinutes(window);
+            if (scope(window) == Scope.REPLICA) {
+                return minutes.sum(minute - windowMinutes + 1, minute);
+            }
+            long hour = minute / MINUTES;
+            long windowHours = Math.min(HOURS, (windowMinutes + MINUTES - 1) / MINUTES);
+            return hours.sum(hour - windowHours + 1, hour);
+        }
+
+        synchronized boolean idleSince(long hour) {
+            return hours.last < hour;
+        }
+    }
+
+    // Fixed number of consecutive time slots ending at the latest one written; older slots are reused
+    private static final class Ring {
+
+        private final long[] counts;
+        private long last = Long.MIN_VALUE;
+
+        Ring(int size) {
+            this.counts = new long[size];
+        }
+
+        void add(long slot, long votes) {
+            advance(slot);
+            if (slot > last - counts.length) {
+                counts[index(slot)] += votes;
+            }
+        }
+
+        void set(long slot, long votes) {
+            advance(slot);
+            if (slot > last - counts.length) {
+                counts[index(slot)] = votes;
+            }
+        }
+
+        long sum(long from, long to) {
+            long sum = 0;
+            for (long slot = Math.max(from, last - counts.length + 1); slot <= Math.min(to, last); slot++) {
+                sum += counts[index(slot)];
+            }
+            return sum;
+        }
+
+        private void advance(long slot) {
+            if (slot <= last) {
+                return;
+            }
+            if (last == Long.MIN_VALUE || slot - last >= counts.length) {
+                Arrays.fill(counts, 0);
+            } else {
+                for (long cleared = last + 1; cleared <= slot; cleared++) {
+                    counts[index(cleared)] = 0;
+                }
+            }
+            last = slot;
+        }
+
+        private int index(long slot) {
+            return (int) Math.floorMod(slot, (long) counts.length);
+        }
+    }
+}
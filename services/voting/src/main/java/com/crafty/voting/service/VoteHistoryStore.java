@@ -0,0 +1,19 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.VoteBucket;
+
+import java.util.List;
+
+/**
+ * Hourly vote buckets shared by all replicas. Each replica adds the votes it took, so a bucket
+ * holds the total across replicas.
+ */
+public interface VoteHistoryStore {
+
+    void addVotes(long origamiId, long epochHour, long votes);
+
+    List<VoteBucket> findSince(long epochHour);
+
+    // Removes buckets older than the given hour and returns how many were removed
+    long deleteBefore(long epochHour);
+}
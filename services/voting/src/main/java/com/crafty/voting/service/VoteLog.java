@@ -0,0 +1,316 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead log of buffered votes, kept in preallocated memory-mapped segment files.
+ * Appenders write a record and then wait in {@link #sync} until a force covers it; one force
+ * covers every record written before it, so concurrent votes share an fsync. Segments are
+ * deleted once the votes in them have been flushed to the repository, and anything left over
+ * from a crash is read back by {@link #recover} on startup. Each log has an ID, under which the
+ * repository records per origami the segments already flushed, so a replay can skip them.
+ */
+@Component
+public class VoteLog {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteLog.class);
+
+    private static final String SEGMENT_PREFIX = "votes-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOG_ID_FILE = "log-id";
+
+    // Origami ID, delta and the CRC32 of both; a torn or never-written record fails the check
+    private static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int CHECKSUMMED_SIZE = Long.BYTES + Long.BYTES;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final String logId;
+    private final String previousLogId;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteBuffer scratch = ByteBuffer.allocate(CHECKSUMMED_SIZE);
+    private final CRC32 crc = new CRC32();
+    private long currentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long written;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long durable;
+    private boolean syncing;
+
+    public VoteLog(VotingProperties votingProperties) throws IOException {
+        VotingProperties.VoteLog properties = votingProperties.getVoteLog();
+        this.enabled = properties.isEnabled();
+        this.directory = Paths.get(properties.getDirectory());
+        this.segmentSize = properties.getSegmentSizeBytes() - properties.getSegmentSizeBytes() % RECORD_SIZE;
+        if (enabled && segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("voting.vote-log.segment-size-bytes must be at least " + RECORD_SIZE
+                + " bytes to hold a record, was " + properties.getSegmentSizeBytes());
+        }
+        if (enabled) {
+            Files.createDirectories(directory);
+            // New segments are numbered after any left by a previous run, which recover() still has to read
+            this.currentIndex = segmentIndexes().stream().mapToLong(Long::longValue).max().orElse(-1) + 1;
+            Path logIdFile = directory.resolve(LOG_ID_FILE);
+            String storedLogId = Files.exists(logIdFile) ? Files.readString(logIdFile).trim() : null;
+            if (storedLogId != null && currentIndex > 0) {
+                this.logId = storedLogId;
+                this.previousLogId = null;
+            } else {
+                // Segment indexes restart at 0, so they must not be compared with the checkpoints of an earlier log
+                this.logId = UUID.randomUUID().toString();
+                this.previousLogId = storedLogId;
+                writeLogId(logIdFile, logId);
+            }
+        } else {
+            this.logId = null;
+            this.previousLogId = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Identifies this log in the repository's flush checkpoints
+    public String getLogId() {
+        return logId;
+    }
+
+    // The ID of a fully flushed log this one replaced on startup, whose checkpoints can be deleted; otherwise null
+    public String getPreviousLogId() {
+        return previousLogId;
+    }
+
+    // Writes one record and returns its log position; it is only durable once sync has reached that position
+    public long append(long origamiId, long delta) {
+        appendLock.lock();
+        try {
+            if (segment != null && segment.remaining() < RECORD_SIZE) {
+                roll();
+            }
+            if (segment == null) {
+                open();
+            }
+            scratch.clear();
+            scratch.putLong(origamiId).putLong(delta).flip();
+            crc.reset();
+            crc.update(scratch);
+            segment.putLong(origamiId).putLong(delta).putInt((int) crc.getValue());
+            written = currentIndex * segmentSize + segment.position();
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to vote log", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Blocks until every record up to position is on disk, forcing the segment unless another caller already is
+    public void sync(long position) {
+        syncLock.lock();
+        try {
+            while (durable < position) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                syncLock.unlock();
+                long reached;
+                try {
+                    reached = force();
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    synced.signalAll();
+                }
+                durable = Math.max(durable, reached);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment if the current one holds any records and returns the index of the
+     * segment that takes new appends. Every older segment may be deleted with
+     * {@link #deleteBefore} once the votes drained alongside this call have been flushed.
+     */
+    public long seal() {
+        appendLock.lock();
+        try {
+            if (segment != null && segment.position() > 0) {
+                roll();
+            }
+            return currentIndex;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to seal vote log segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void deleteBefore(long index) {
+        for (Long segmentIndex : segmentIndexes()) {
+            if (segmentIndex < index) {
+                try {
+                    Files.deleteIfExists(segmentPath(segmentIndex));
+                } catch (IOException e) {
+                    log.warn("Failed to delete vote log segment {}: {}", segmentIndex, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Sums the votes in the segments left by a previous run; call before the first append
+    public Map<Long, Long> recover() {
+        Map<Long, Long> deltas = new HashMap<>();
+        recoverSegments().values().forEach(segment -> segment.forEach((origamiId, delta) -> deltas.merge(origamiId, delta, Long::sum)));
+        return deltas;
+    }
+
+    // The votes per origami of each segment left by a previous run, by segment index; call before the first append
+    public Map<Long, Map<Long, Long>> recoverSegments() {
+        Map<Long, Map<Long, Long>> segments = new TreeMap<>();
+        for (Long segmentIndex : segmentIndexes()) {
+            if (segmentIndex >= currentIndex) {
+                continue;
+            }
+            try {
+                Map<Long, Long> deltas = new HashMap<>();
+                int records = readSegment(segmentPath(segmentIndex), deltas);
+                segments.put(segmentIndex, deltas);
+                log.info("Recovered {} votes from vote log segment {}", records, segmentIndex);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read vote log segment " + segmentIndex, e);
+            }
+        }
+        return segments;
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                channel.close();
+                segment = null;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close vote log segment {}: {}", currentIndex, e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long force() {
+        MappedByteBuffer toForce;
+        long reached;
+        appendLock.lock();
+        try {
+            toForce = segment;
+            reached = written;
+        } finally {
+            appendLock.unlock();
+        }
+        // Records in earlier segments were forced when those segments were rolled
+        if (toForce != null) {
+            toForce.force();
+        }
+        return reached;
+    }
+
+    // Replaced in one rename, and forced first, so a crash leaves either the old ID or the new one on disk
+    private static void writeLogId(Path logIdFile, String logId) throws IOException {
+        Path written = logIdFile.resolveSibling(LOG_ID_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(logId.getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(written, logIdFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(segmentPath(currentIndex),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        segment = null;
+        currentIndex++;
+    }
+
+    private int readSegment(Path path, Map<Long, Long> deltas) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+        ByteBuffer checksummed = ByteBuffer.allocate(CHECKSUMMED_SIZE);
+        CRC32 recordCrc = new CRC32();
+        int count = 0;
+        while (records.remaining() >= RECORD_SIZE) {
+            long origamiId = records.getLong();
+            long delta = records.getLong();
+            int checksum = records.getInt();
+            checksummed.clear();
+            checksummed.putLong(origamiId).putLong(delta).flip();
+            recordCrc.reset();
+            recordCrc.update(checksummed);
+            if (checksum != (int) recordCrc.getValue()) {
+                // End of the written part, or a record torn by the crash
+                break;
+            }
+            deltas.merge(origamiId, delta, Long::sum);
+            count++;
+        }
+        return count;
+    }
+
+    private List<Long> segmentIndexes() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Long.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list vote log segments in " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,60 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket, kept as a single theoretical arrival time per client (GCRA) and
+ * updated with compare-and-set. A client whose bucket has refilled is forgotten on the next cleanup.
+ */
+@Component
+public class VoteRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long origin = System.nanoTime();
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public VoteRateLimiter(VotingProperties votingProperties) {
+        VotingProperties.RateLimit rateLimit = votingProperties.getRateLimit();
+        this.intervalNanos = (long) (1_000_000_000L / rateLimit.getVotesPerSecond());
+        this.toleranceNanos = intervalNanos * rateLimit.getBurst();
+    }
+
+    // Takes a token for the client, or returns false if its bucket is empty
+    public boolean tryAcquire(String client) {
+        AtomicLong arrival = buckets.computeIfAbsent(client, key -> new AtomicLong());
+        long now = now();
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Seconds until an empty bucket holds a token again, for Retry-After
+    public long retryAfterSeconds() {
+        return Math.max(1, (intervalNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void forgetIdleClients() {
+        long now = now();
+        buckets.values().removeIf(arrival -> arrival.get() <= now);
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+}
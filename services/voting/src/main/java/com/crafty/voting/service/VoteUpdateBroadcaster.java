@@ -0,0 +1,154 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.VoteUpdate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces vote count changes and pushes them to subscribers at most once per interval per origami.
+ * Subscribers either follow one origami or all of them. The scheduled push only queues updates;
+ * each subscriber is delivered to on its own push thread from a buffer of at most buffer-size
+ * origamis, so a slow client delays nobody else. A subscriber whose buffer overflows is dropped.
+ */
+@Component
+public class VoteUpdateBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteUpdateBroadcaster.class);
+
+    private final ConcurrentMap<Long, Long> changed = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Subscription>> origamiSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscription> allSubscribers = ConcurrentHashMap.newKeySet();
+
+    private final int bufferSize;
+    private final ExecutorService pushExecutor;
+
+    public VoteUpdateBroadcaster(@Value("${voting.push.buffer-size:1000}") int bufferSize) {
+        this.bufferSize = bufferSize;
+        // One virtual thread per subscriber with pending updates, so a stalled client parks only its own
+        // and thousands of them do not pin a platform thread each
+        this.pushExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vote-push-", 0).factory());
+    }
+
+    public void publish(Origami origami) {
+        if (origami.getOrigamiId() != null) {
+            changed.merge(origami.getOrigamiId(), origami.getVotes(), Math::max);
+        }
+    }
+
+    // Subscribes to one origami, or to all origamis when origamiId is null; run the returned handle to unsubscribe
+    public Runnable subscribe(Long origamiId, Consumer<VoteUpdate> subscriber) {
+        return subscribe(origamiId, subscriber, () -> {});
+    }
+
+    // onDropped runs when the subscriber fell too far behind and was unsubscribed, e.g. to close its connection
+    public Runnable subscribe(Long origamiId, Consumer<VoteUpdate> subscriber, Runnable onDropped) {
+        Subscription subscription = new Subscription(subscriber, onDropped);
+        if (origamiId == null) {
+            subscription.unsubscribe = () -> allSubscribers.remove(subscription);
+            allSubscribers.add(subscription);
+        } else {
+            subscription.unsubscribe = () -> origamiSubscribers.computeIfPresent(origamiId, (id, subscriptions) -> {
+                subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            });
+            origamiSubscribers.computeIfAbsent(origamiId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        return subscription.unsubscribe;
+    }
+
+    @Scheduled(fixedRateString = "${voting.push.interval-ms:1000}")
+    public void pushChanges() {
+        for (Long origamiId : changed.keySet()) {
+            Long votes = changed.remove(origamiId);
+            if (votes == null) {
+                continue;
+            }
+            VoteUpdate update = new VoteUpdate(origamiId, votes);
+            Set<Subscription> subscriptions = origamiSubscribers.get(origamiId);
+            if (subscriptions != null) {
+                subscriptions.forEach(subscription -> subscription.offer(update));
+            }
+            allSubscribers.forEach(subscription -> subscription.offer(update));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+    }
+
+    private final class Subscription {
+
+        private final Consumer<VoteUpdate> subscriber;
+        private final Runnable onDropped;
+        private Runnable unsubscribe;
+
+        // Latest count per origami not delivered yet; guarded by this
+        private final Map<Long, Long> pending = new LinkedHashMap<>();
+        private boolean draining;
+        private boolean dropped;
+
+        Subscription(Consumer<VoteUpdate> subscriber, Runnable onDropped) {
+            this.subscriber = subscriber;
+            this.onDropped = onDropped;
+        }
+
+        void offer(VoteUpdate update) {
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                pending.merge(update.getOrigamiId(), update.getVotes(), Math::max);
+                if (pending.size() <= bufferSize) {
+                    if (!draining) {
+                        draining = true;
+                        pushExecutor.execute(this::drain);
+                    }
+                    return;
+                }
+                dropped = true;
+                pending.clear();
+            }
+            log.debug("Dropped a vote update subscriber that fell {} origamis behind", bufferSize);
+            unsubscribe.run();
+            onDropped.run();
+        }
+
+        private void drain() {
+            while (true) {
+                Map<Long, Long> updates;
+                synchronized (this) {
+                    if (pending.isEmpty() || dropped) {
+                        draining = false;
+                        return;
+                    }
+                    updates = new LinkedHashMap<>(pending);
+                    pending.clear();
+                }
+                updates.forEach((origamiId, votes) -> deliver(new VoteUpdate(origamiId, votes)));
+            }
+        }
+
+        private void deliver(VoteUpdate update) {
+            try {
+                subscriber.accept(update);
+            } catch (Exception e) {
+                log.debug("Failed to push vote update for origami ID {}: {}", update.getOrigamiId(), e.getMessage());
+            }
+        }
+    }
+}
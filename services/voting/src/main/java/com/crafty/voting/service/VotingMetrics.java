@@ -0,0 +1,115 @@
+package com.crafty.voting.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters for vote ingestion and catalogue synchronization. Repository call latency comes
+ * from Spring Data's {@code spring.data.repository.invocations} timer, tagged by backend in MetricsConfig.
+ */
+@Component
+public class VotingMetrics {
+
+    public static final String SINGLE = "single";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry registry;
+
+    private final Timer singleVoteTimer;
+    private final Timer batchVoteTimer;
+
+    private final DistributionSummary catalogueProducts;
+    private final DistributionSummary catalogueBytes;
+
+    private volatile long lastCatalogueSync = System.currentTimeMillis();
+
+    public VotingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.singleVoteTimer = voteTimer(SINGLE);
+        this.batchVoteTimer = voteTimer(BATCH);
+        this.catalogueProducts = DistributionSummary.builder("catalogue.fetch.products")
+            .description("Products in each catalogue response")
+            .register(registry);
+        this.catalogueBytes = DistributionSummary.builder("catalogue.fetch.size")
+            .description("Size of each catalogue response after decompression")
+            .baseUnit("bytes")
+            .register(registry);
+        TimeGauge.builder("catalogue.sync.lag", this, TimeUnit.MILLISECONDS,
+                metrics -> System.currentTimeMillis() - metrics.lastCatalogueSync)
+            .description("Time since this replica last synchronized the catalogue, or since it started")
+            .register(registry);
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+
+    public void voteRecorded(Timer.Sample sample, String source, long accepted, long rejected) {
+        sample.stop(SINGLE.equals(source) ? singleVoteTimer : batchVoteTimer);
+        votes(source, "accepted").increment(accepted);
+        votes(source, "rejected").increment(rejected);
+    }
+
+    public void voteFailed(Timer.Sample sample, String source, long votes) {
+        sample.stop(SINGLE.equals(source) ? singleVoteTimer : batchVoteTimer);
+        votes(source, "failed").increment(votes);
+    }
+
+    // A single vote that did not reach the service: rate_limited or duplicate (VoteGuard), or replayed for a known Idempotency-Key
+    public void voteShed(String reason) {
+        votes(SINGLE, reason).increment();
+    }
+
+    // One HTTP attempt, including streaming the products into the diff; outcome is success, not_modified or failure
+    public void catalogueFetched(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("catalogue.fetch")
+            .description("Catalogue fetch attempts")
+            .tag("outcome", outcome)
+            .register(registry));
+    }
+
+    public void catalogueRead(int products, long bytes) {
+        catalogueProducts.record(products);
+        catalogueBytes.record(bytes);
+    }
+
+    public void catalogueDiffed(int inserted, int updated, int unchanged, int skipped) {
+        syncChanges("inserted").increment(inserted);
+        syncChanges("updated").increment(updated);
+        syncChanges("unchanged").increment(unchanged);
+        syncChanges("skipped").increment(skipped);
+    }
+
+    // Also called when the catalogue answers 304, since the stored origamis are then known to be current
+    public void catalogueSynced() {
+        lastCatalogueSync = System.currentTimeMillis();
+    }
+
+    private Timer voteTimer(String source) {
+        return Timer.builder("voting.vote")
+            .description("Time to record a vote or a batch of votes")
+            .tag("source", source)
+            .register(registry);
+    }
+
+    private Counter votes(String source, String outcome) {
+        return Counter.builder("voting.votes")
+            .description("Votes by outcome: accepted, rejected for an unknown origami, failed, rate_limited, duplicate or replayed")
+            .tag("source", source)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private Counter syncChanges(String change) {
+        return Counter.builder("catalogue.sync.products")
+            .description("Catalogue products by what the sync did with them")
+            .tag("change", change)
+            .register(registry);
+    }
+}
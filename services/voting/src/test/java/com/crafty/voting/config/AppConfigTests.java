@@ -0,0 +1,57 @@
+package com.crafty.voting.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppConfigTests {
+
+    private HttpServer catalogue;
+
+    @AfterEach
+    void stopCatalogue() {
+        catalogue.stop(0);
+    }
+
+    @Test
+    void requestIsCancelledAfterTheTotalTimeoutWhileTheBodyTrickles() throws Exception {
+        catalogue = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // One byte every 100 ms, never long enough to trip the read timeout
+        catalogue.createContext("/api/products", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 600; i++) {
+                    out.write(' ');
+                    out.flush();
+                    Thread.sleep(100);
+                }
+            } catch (Exception e) {
+                // The client hung up
+            }
+        });
+        catalogue.start();
+        AppProperties appProperties = new AppProperties();
+        appProperties.getHttp().setTotalTimeoutMs(500);
+        RestTemplate restTemplate = new AppConfig().restTemplate(appProperties);
+        String url = "http://localhost:" + catalogue.getAddress().getPort() + "/api/products";
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.execute(url, HttpMethod.GET, null, response -> {
+            try (InputStream body = response.getBody()) {
+                return new String(body.readAllBytes(), StandardCharsets.US_ASCII);
+            }
+        }));
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "the request outlived its total timeout");
+    }
+}
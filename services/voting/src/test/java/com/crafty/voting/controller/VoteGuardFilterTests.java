@@ -0,0 +1,52 @@
+package com.crafty.voting.controller;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.service.IdempotencyKeys;
+import com.crafty.voting.service.VoteDeduplicator;
+import com.crafty.voting.service.VoteGuard;
+import com.crafty.voting.service.VoteRateLimiter;
+import com.crafty.voting.service.VotingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class VoteGuardFilterTests {
+
+    @Test
+    void numericIdsLoseTheirLeadingZeros() {
+        assertEquals("7", VoteGuardFilter.origamiId("/api/origamis/007/vote"));
+        assertEquals("0", VoteGuardFilter.origamiId("/api/origamis/000/vote"));
+        assertEquals("70", VoteGuardFilter.origamiId("/api/origamis/70/vote"));
+        assertEquals("0x7", VoteGuardFilter.origamiId("/api/origamis/0x7/vote"));
+        assertNull(VoteGuardFilter.origamiId("/api/origamis/7/votes"));
+    }
+
+    @Test
+    void zeroPaddedIdIsARepeatVote() throws Exception {
+        VotingProperties properties = new VotingProperties();
+        properties.getDedupe().setEnabled(true);
+        properties.getDedupe().setExpectedVotes(1000);
+        properties.getRateLimit().setEnabled(false);
+        VoteGuard voteGuard = new VoteGuard(properties, new VoteRateLimiter(properties), new VoteDeduplicator(properties),
+            new VotingMetrics(new SimpleMeterRegistry()));
+        VoteGuardFilter filter = new VoteGuardFilter(voteGuard, mock(IdempotencyKeys.class), properties);
+
+        assertEquals(200, vote(filter, "7"));
+        assertEquals(409, vote(filter, "007"));
+        assertEquals(409, vote(filter, "0007"));
+        assertEquals(200, vote(filter, "8"));
+    }
+
+    private static int vote(VoteGuardFilter filter, String origamiId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/origamis/" + origamiId + "/vote");
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> ((MockHttpServletResponse) res).setStatus(200));
+        return response.getStatus();
+    }
+}
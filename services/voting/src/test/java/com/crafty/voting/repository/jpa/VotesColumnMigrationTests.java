@@ -0,0 +1,31 @@
+package com.crafty.voting.repository.jpa;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VotesColumnMigrationTests {
+
+    @Test
+    void widensAnIntegerVotesColumnAndKeepsCounts() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        // The schema ddl-auto=update created while votes were ints
+        jdbcTemplate.execute("CREATE TABLE origami (origami_id BIGINT PRIMARY KEY, name VARCHAR(255), votes INTEGER NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_origami_votes ON origami (votes)");
+        jdbcTemplate.update("INSERT INTO origami VALUES (1, 'Fox', 2147483647)");
+
+        VotesColumnMigration migration = new VotesColumnMigration(jdbcTemplate);
+        migration.widenVotes();
+        migration.widenVotes();
+
+        jdbcTemplate.update("UPDATE origami SET votes = votes + 1 WHERE origami_id = 1");
+        assertEquals(2147483648L, jdbcTemplate.queryForObject("SELECT votes FROM origami WHERE origami_id = 1", Long.class));
+        assertEquals("BIGINT", jdbcTemplate.queryForObject(
+            "SELECT data_type FROM information_schema.columns WHERE table_name = 'ORIGAMI' AND column_name = 'VOTES'", String.class));
+    }
+}
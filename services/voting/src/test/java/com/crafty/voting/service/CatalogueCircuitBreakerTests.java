@@ -0,0 +1,37 @@
+package com.crafty.voting.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogueCircuitBreakerTests {
+
+    @Test
+    void opensAfterThresholdAndAllowsOneTrialAfterOpenPeriod() {
+        AtomicLong now = new AtomicLong();
+        CatalogueCircuitBreaker breaker = new CatalogueCircuitBreaker(2, 1000, now::get);
+
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CatalogueCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        now.set(1000);
+        assertTrue(breaker.allowRequest());
+        // A failed trial re-opens the circuit straight away
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        now.set(2000);
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CatalogueCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,55 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.CatalogueProductDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogueProductReaderTests {
+
+    private final CatalogueProductReader reader = new CatalogueProductReader(new JsonFactory());
+
+    @Test
+    void readsIdAndNameAndSkipsEverythingElse() throws IOException {
+        String json = """
+            [
+              {"id": 1, "name": "Fox", "tags": ["animal", {"nested": [1, 2]}], "description": "Folded", "image_url": null},
+              {"category": "birds", "name": "Crane", "id": 2},
+              {"id": null, "name": "Unnumbered"}
+            ]
+            """;
+        List<CatalogueProductDTO> products = new ArrayList<>();
+
+        long bytes = reader.read(stream(json), products::add);
+
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length - 1, bytes, "everything up to the closing bracket");
+        assertEquals(3, products.size());
+        assertEquals(1L, products.get(0).getId());
+        assertEquals("Fox", products.get(0).getName());
+        assertNull(products.get(0).getDescription());
+        assertEquals(2L, products.get(1).getId());
+        assertEquals("Crane", products.get(1).getName());
+        assertNull(products.get(2).getId());
+    }
+
+    @Test
+    void rejectsPayloadThatIsNotAnArrayOfObjects() {
+        assertThrows(JsonParseException.class, () -> reader.read(stream("{\"id\": 1}"), product -> {}));
+        assertThrows(JsonParseException.class, () -> reader.read(stream("[1, 2]"), product -> {}));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
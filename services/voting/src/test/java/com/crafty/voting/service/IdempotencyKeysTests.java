@@ -0,0 +1,95 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import com.crafty.voting.model.IdempotencyKey;
+import com.crafty.voting.model.Origami;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyKeysTests {
+
+    @Test
+    void replaysTheFirstResponseAndForgetsServerErrors() {
+        IdempotencyKeys idempotencyKeys = idempotencyKeys(new MapStore(), false);
+
+        assertNull(idempotencyKeys.begin("a", "1"));
+        assertTrue(idempotencyKeys.begin("a", "1").isInProgress());
+        idempotencyKeys.finish("a", "1", 200, origami(1L, "Crane", 5));
+
+        IdempotencyKey replayed = idempotencyKeys.begin("a", "1");
+        assertEquals(200, replayed.getStatus());
+        assertEquals("Crane", replayed.getName());
+        assertEquals(5, replayed.getVotes());
+        assertEquals("1", idempotencyKeys.begin("a", "2").getOrigamiId());
+
+        assertNull(idempotencyKeys.begin("b", "1"));
+        idempotencyKeys.finish("b", "1", 500, null);
+        assertNull(idempotencyKeys.begin("b", "1"));
+        assertTrue(idempotencyKeys.isKnown("b"));
+        assertFalse(idempotencyKeys.isKnown("c"));
+    }
+
+    @Test
+    void persistedKeysAreSharedByReplicas() {
+        MapStore store = new MapStore();
+        IdempotencyKeys first = idempotencyKeys(store, true);
+        IdempotencyKeys second = idempotencyKeys(store, true);
+
+        assertNull(first.begin("a", "1"));
+        assertTrue(second.begin("a", "1").isInProgress());
+        first.finish("a", "1", 404, null);
+        assertEquals(404, second.begin("a", "1").getStatus());
+
+        assertNull(first.begin("b", "1"));
+        first.finish("b", "1", 503, null);
+        assertNull(second.begin("b", "1"));
+    }
+
+    private static IdempotencyKeys idempotencyKeys(IdempotencyKeyStore store, boolean persist) {
+        VotingProperties properties = new VotingProperties();
+        properties.getIdempotency().setPersist(persist);
+        return new IdempotencyKeys(store, new VotingMetrics(new SimpleMeterRegistry()), properties);
+    }
+
+    private static Origami origami(Long id, String name, long votes) {
+        Origami origami = new Origami();
+        origami.setOrigamiId(id);
+        origami.setName(name);
+        origami.setVotes(votes);
+        return origami;
+    }
+
+    private static class MapStore implements IdempotencyKeyStore {
+
+        private final Map<String, IdempotencyKey> keys = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<IdempotencyKey> claim(IdempotencyKey key) {
+            return Optional.ofNullable(keys.putIfAbsent(key.getId(), key));
+        }
+
+        @Override
+        public void complete(IdempotencyKey key) {
+            keys.put(key.getId(), key);
+        }
+
+        @Override
+        public void release(String id) {
+            keys.computeIfPresent(id, (key, earlier) -> earlier.isInProgress() ? null : earlier);
+        }
+
+        @Override
+        public void deleteExpired(long now) {
+            keys.values().removeIf(key -> key.getExpiresAt() < now);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryOrigamiStoreTests {
+
+    @Test
+    void incrementsAndPagesByVotes() {
+        InMemoryOrigamiStore store = new InMemoryOrigamiStore();
+        long fox = save(store, "Fox");
+        long crane = save(store, "Crane");
+        long frog = save(store, "Frog");
+
+        assertEquals(3, store.incrementVotes(crane, 3).orElseThrow().getVotes());
+        assertEquals(Set.of(fox, frog), store.incrementVotesBatch(Map.of(fox, 1, frog, 3, 999L, 1)));
+        assertTrue(store.incrementVotes(999L, 1).isEmpty());
+
+        assertEquals(List.of(crane, frog), ids(store.findPage(null, 2, true)));
+        assertEquals(List.of(fox), ids(store.findPage(frog, 2, true)));
+        assertEquals(List.of(crane, frog), ids(store.findPage(fox, 5, false)));
+    }
+
+    @Test
+    void upsertNamesKeepsVotesOfExistingOrigamis() {
+        InMemoryOrigamiStore store = new InMemoryOrigamiStore();
+        store.upsertNames(Map.of(10L, "Fox", 20L, "Crane"));
+        store.incrementVotes(10L, 4);
+
+        store.upsertNames(Map.of(10L, "Orange Fox", 30L, "Frog"));
+
+        assertEquals(Map.of(10L, "Orange Fox", 20L, "Crane", 30L, "Frog"), store.findAllNames());
+        assertEquals(4, store.findById(10L).orElseThrow().getVotes());
+        assertEquals(31L, save(store, "Owl"));
+    }
+
+    private static long save(InMemoryOrigamiStore store, String name) {
+        Origami origami = new Origami();
+        origami.setName(name);
+        return store.save(origami).getOrigamiId();
+    }
+
+    private static List<Long> ids(List<Origami> origamis) {
+        return origamis.stream().map(Origami::getOrigamiId).toList();
+    }
+}
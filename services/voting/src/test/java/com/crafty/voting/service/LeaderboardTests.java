@@ -0,0 +1,38 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTests {
+
+    @Test
+    void ranksByVotesAndIgnoresStaleUpdates() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(origami(1L, "Fox", 3));
+        leaderboard.update(origami(2L, "Crane", 5));
+        leaderboard.update(origami(3L, "Frog", 5));
+        leaderboard.update(origami(1L, "Fox", 7));
+        // An older count arriving late must not move the fox back down
+        leaderboard.update(origami(1L, "Fox", 4));
+        leaderboard.rename(2L, "Paper Crane");
+
+        List<Origami> top = leaderboard.top(2);
+
+        assertEquals(List.of(1L, 2L), top.stream().map(Origami::getOrigamiId).toList());
+        assertEquals(7, top.get(0).getVotes());
+        assertEquals("Paper Crane", top.get(1).getName());
+        assertEquals(3, leaderboard.top(10).size());
+    }
+
+    private static Origami origami(Long id, String name, int votes) {
+        Origami origami = new Origami();
+        origami.setOrigamiId(id);
+        origami.setName(name);
+        origami.setVotes(votes);
+        return origami;
+    }
+}
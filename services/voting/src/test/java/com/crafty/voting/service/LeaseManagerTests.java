@@ -0,0 +1,66 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.VotingApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two replicas sharing one named in-memory H2 database
+class LeaseManagerTests {
+
+    private static final String LEASE = "test-lease";
+
+    private ConfigurableApplicationContext replicaA;
+    private ConfigurableApplicationContext replicaB;
+
+    @BeforeEach
+    void startReplicas() {
+        replicaA = startReplica("replica-a");
+        replicaB = startReplica("replica-b");
+    }
+
+    @AfterEach
+    void stopReplicas() {
+        replicaA.close();
+        replicaB.close();
+    }
+
+    @Test
+    void onlyOneReplicaHoldsTheLeaseUntilReleasedOrExpired() throws InterruptedException {
+        LeaseManager a = replicaA.getBean(LeaseManager.class);
+        LeaseManager b = replicaB.getBean(LeaseManager.class);
+
+        assertTrue(a.tryAcquire(LEASE));
+        assertFalse(b.tryAcquire(LEASE));
+        assertTrue(a.tryAcquire(LEASE), "the holder renews its own lease");
+
+        a.release(LEASE);
+        assertTrue(b.tryAcquire(LEASE));
+        assertFalse(a.tryAcquire(LEASE));
+
+        // B stops renewing, so A takes over once the lease expires
+        Thread.sleep(600);
+        assertTrue(a.tryAcquire(LEASE));
+        assertFalse(b.tryAcquire(LEASE));
+    }
+
+    private static ConfigurableApplicationContext startReplica(String owner) {
+        // Command-line arguments, since default properties would lose to application.properties
+        return new SpringApplicationBuilder(VotingApplication.class).run(
+            "--spring.profiles.active=h2",
+            "--spring.datasource.url=jdbc:h2:mem:lease-tests;DB_CLOSE_DELAY=-1",
+            // Keep the second replica from dropping the tables the first one created
+            "--spring.jpa.hibernate.ddl-auto=update",
+            "--server.port=0",
+            "--catalogue.service-url=http://localhost:1/api/products",
+            "--catalogue.retry.max-attempts=1",
+            "--voting.lease.owner=" + owner,
+            "--voting.lease.ttl-ms=500"
+        );
+    }
+}
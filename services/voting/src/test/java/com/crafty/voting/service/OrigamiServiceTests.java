@@ -0,0 +1,123 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.BatchVoteResult;
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.VoteDelta;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.profiles.active=h2"})
+class OrigamiServiceTests {
+
+    private static final int THREADS = 32;
+    private static final int VOTES = 4000;
+
+    @Autowired
+    private OrigamiService origamiService;
+
+    @Autowired
+    private OrigamiStore origamiStore;
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        String origamiId = saveOrigami("Concurrency Crane");
+
+        Set<Long> observedCounts = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < VOTES; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    origamiService.incrementVotes(origamiId, 1).ifPresent(observedCounts::add);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(VOTES, origamiService.getVotes(origamiId));
+        // Every increment must have observed a distinct count
+        assertEquals(LongStream.rangeClosed(1, VOTES).boxed().collect(Collectors.toSet()), observedCounts);
+    }
+
+    @Test
+    void batchVotesAreAppliedAndUnknownIdsReported() {
+        String first = saveOrigami("Batch Fox");
+        String second = saveOrigami("Batch Owl");
+
+        BatchVoteResult result = origamiService.recordVotes(List.of(
+            new VoteDelta(first, 3),
+            new VoteDelta(second, 5),
+            new VoteDelta(first, 2),
+            new VoteDelta("999999", 1)));
+
+        assertEquals(10, result.getAccepted());
+        assertEquals(List.of("999999"), result.getUnknown());
+        assertEquals(5, origamiService.getVotes(first));
+        assertEquals(5, origamiService.getVotes(second));
+    }
+
+    @Test
+    void overflowingMergedDeltasAreRejected() {
+        String origamiId = saveOrigami("Overflow Frog");
+
+        assertThrows(ArithmeticException.class, () -> origamiService.recordVotes(List.of(
+            new VoteDelta(origamiId, Integer.MAX_VALUE),
+            new VoteDelta(origamiId, Integer.MAX_VALUE))));
+        assertEquals(0, origamiService.getVotes(origamiId));
+    }
+
+    @Test
+    void incrementOfUnknownOrigamiIsEmpty() {
+        assertTrue(origamiService.incrementVotes("999999", 1).isEmpty());
+        assertTrue(origamiService.incrementVotes("not-a-number", 1).isEmpty());
+    }
+
+    @Test
+    void nonNumericIdIsUnknownWithoutDocumentIds() {
+        assertTrue(origamiService.getOrigamiById("65f1c2a9e4b0a1b2c3d4e5f6").isEmpty());
+    }
+
+    @Test
+    void loggedVotesRecordTheirCheckpoint() {
+        long origamiId = Long.parseLong(saveOrigami("Checkpoint Crab"));
+
+        assertEquals(4, origamiStore.incrementLoggedVotes(origamiId, 4, "test-log", 3).orElseThrow().getVotes());
+        assertEquals(6, origamiStore.incrementLoggedVotes(origamiId, 2, "test-log", 5).orElseThrow().getVotes());
+        assertTrue(origamiStore.incrementLoggedVotes(999999, 1, "test-log", 5).isEmpty());
+        assertEquals(Map.of(origamiId, 5L), origamiStore.voteLogCheckpoints("test-log"));
+
+        origamiStore.deleteVoteLogCheckpoints("test-log");
+        assertTrue(origamiStore.voteLogCheckpoints("test-log").isEmpty());
+    }
+
+    private String saveOrigami(String name) {
+        Origami origami = new Origami();
+        origami.setName(name);
+        return String.valueOf(origamiService.saveOrUpdateOrigami(origami).getOrigamiId());
+    }
+}
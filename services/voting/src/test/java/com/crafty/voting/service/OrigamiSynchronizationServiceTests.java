@@ -0,0 +1,143 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.CatalogueProductDTO;
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.repository.jpa.OrigamiRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"spring.profiles.active=h2", "catalogue.circuit-breaker.failure-threshold=100"})
+class OrigamiSynchronizationServiceTests {
+
+    // Serves a payload that is valid JSON but not a product array
+    private static final HttpServer CATALOGUE = malformedCatalogue();
+    private static final AtomicInteger CATALOGUE_REQUESTS = new AtomicInteger();
+    // While set, requests block until it is counted down
+    private static volatile CountDownLatch catalogueGate;
+
+    @DynamicPropertySource
+    static void catalogueUrl(DynamicPropertyRegistry registry) {
+        registry.add("catalogue.service-url",
+                () -> "http://localhost:" + CATALOGUE.getAddress().getPort() + "/api/products");
+    }
+
+    @AfterAll
+    static void stopCatalogue() {
+        CATALOGUE.stop(0);
+    }
+
+    @Autowired
+    private OrigamiSynchronizationService synchronizationService;
+
+    @Autowired
+    private OrigamiRepository origamiRepository;
+
+    @BeforeEach
+    void clearOrigamis() {
+        origamiRepository.deleteAll();
+    }
+
+    @Test
+    void applyCatalogueInsertsNewAndRenamesChangedProductsOnly() {
+        synchronizationService.applyCatalogue(List.of(product(1L, "Fox"), product(2L, "Crane")));
+        // Origamis keep their catalogue IDs
+        assertEquals("Crane", origamiRepository.findById(2L).orElseThrow().getName());
+        origamiRepository.incrementVotes(1L, 7);
+
+        synchronizationService.applyCatalogue(List.of(product(1L, "Orange Fox"), product(2L, "Crane")));
+
+        // An unchanged catalogue inserts nothing on later cycles
+        synchronizationService.applyCatalogue(List.of(product(1L, "Orange Fox"), product(2L, "Crane")));
+
+        assertEquals(2, origamiRepository.count());
+        assertEquals(List.of(1L, 2L), origamiRepository.findAll().stream().map(Origami::getOrigamiId).sorted().toList());
+        Origami fox = origamiRepository.findById(1L).orElseThrow();
+        assertEquals("Orange Fox", fox.getName());
+        // Votes survive a rename
+        assertEquals(7, fox.getVotes());
+    }
+
+    @Test
+    void malformedCatalogueIsNotRetried() {
+        int before = CATALOGUE_REQUESTS.get();
+
+        synchronizationService.synchronizeOrigamis();
+
+        assertEquals(1, CATALOGUE_REQUESTS.get() - before);
+        assertEquals(0, origamiRepository.count());
+    }
+
+    @Test
+    void overlappingCyclesInOneReplicaFetchOnce() throws Exception {
+        int before = CATALOGUE_REQUESTS.get();
+        catalogueGate = new CountDownLatch(1);
+        Thread running = new Thread(synchronizationService::synchronizeOrigamis);
+        try {
+            running.start();
+            while (CATALOGUE_REQUESTS.get() == before) {
+                Thread.sleep(10);
+            }
+
+            // Holds the same lease owner as the running cycle, so only the in-process guard stops it
+            synchronizationService.synchronizeOrigamis();
+        } finally {
+            catalogueGate.countDown();
+            catalogueGate = null;
+        }
+        running.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertEquals(1, CATALOGUE_REQUESTS.get() - before);
+    }
+
+    private static HttpServer malformedCatalogue() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/products", exchange -> {
+                CATALOGUE_REQUESTS.incrementAndGet();
+                CountDownLatch gate = catalogueGate;
+                if (gate != null) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = "{\"id\": 1}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CatalogueProductDTO product(Long id, String name) {
+        CatalogueProductDTO product = new CatalogueProductDTO();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,79 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=h2",
+    "voting.sharded-counters.enabled=true",
+    "voting.sharded-counters.votes-per-shard-per-second=1",
+    "voting.sharded-counters.sum-cache-ms=0",
+    // Adjusted and folded by the test itself
+    "voting.sharded-counters.adjust-interval-ms=3600000",
+    "voting.sharded-counters.fold-interval-ms=3600000"})
+class ShardedVoteCountersTests {
+
+    private static final int THREADS = 16;
+    private static final int VOTES = 2000;
+
+    @Autowired
+    private OrigamiService origamiService;
+
+    @Autowired
+    private ShardedVoteCounters shardedVoteCounters;
+
+    @Autowired
+    private OrigamiStore origamiStore;
+
+    @Test
+    void hotOrigamiVotesAreSpreadOverShardsAndFoldedBack() throws Exception {
+        Origami saved = new Origami();
+        saved.setName("Hot Crane");
+        long origamiId = origamiService.saveOrUpdateOrigami(saved).getOrigamiId();
+        String id = String.valueOf(origamiId);
+
+        for (int i = 0; i < 50; i++) {
+            origamiService.recordVote(id);
+        }
+        shardedVoteCounters.adjustShards();
+        assertTrue(shardedVoteCounters.shards(origamiId) > 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < VOTES; i++) {
+                futures.add(executor.submit(() -> origamiService.recordVote(id)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long expected = 50 + VOTES;
+        assertTrue(origamiStore.findById(origamiId).orElseThrow().getVotes() < expected);
+        assertEquals(expected, origamiService.getVotes(id));
+
+        shardedVoteCounters.foldShards();
+        assertEquals(expected, origamiStore.findById(origamiId).orElseThrow().getVotes());
+        assertEquals(expected, origamiService.getVotes(id));
+        assertEquals(expected, origamiStore.totalVotes(origamiId).orElseThrow());
+    }
+
+    @Test
+    void unknownOrigamiIsNotVotedInAShard() {
+        assertTrue(origamiService.recordVote("999999").isEmpty());
+    }
+}
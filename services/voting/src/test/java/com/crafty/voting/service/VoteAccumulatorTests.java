@@ -0,0 +1,51 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VoteAccumulatorTests {
+
+    @Test
+    void readsDoNotDropWhileAFlushIsInProgress() {
+        VoteAccumulator accumulator = new VoteAccumulator();
+        Origami persisted = origami(7L, 10);
+        accumulator.record(7L, 3, id -> Optional.of(persisted));
+
+        Map<Long, Long> deltas = accumulator.drain();
+        assertEquals(Map.of(7L, 3L), deltas);
+        // Drained but not written yet
+        assertEquals(13, accumulator.merge(persisted).getVotes());
+        assertEquals(14, accumulator.record(7L, 1, id -> Optional.empty()).orElseThrow().getVotes());
+
+        // Another replica's 5 votes were written in the meantime
+        Origami written = origami(7L, 18);
+        accumulator.flushed(7L, 3, written);
+        assertEquals(19, accumulator.merge(written).getVotes());
+        assertEquals(Map.of(7L, 1L), accumulator.drain());
+    }
+
+    @Test
+    void restoredDeltaIsDrainedAgain() {
+        VoteAccumulator accumulator = new VoteAccumulator();
+        Origami persisted = origami(7L, 0);
+        accumulator.record(7L, 2, id -> Optional.of(persisted));
+
+        accumulator.restore(7L, accumulator.drain().get(7L));
+        accumulator.record(7L, 1, id -> Optional.empty());
+
+        assertEquals(Map.of(7L, 3L), accumulator.drain());
+        assertEquals(3, accumulator.merge(persisted).getVotes());
+    }
+
+    private static Origami origami(long id, long votes) {
+        Origami origami = new Origami();
+        origami.setOrigamiId(id);
+        origami.setVotes(votes);
+        return origami;
+    }
+}
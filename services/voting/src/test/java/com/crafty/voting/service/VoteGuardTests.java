@@ -0,0 +1,66 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteGuardTests {
+
+    @Test
+    void rateLimitsEachClientAfterItsBurst() {
+        VotingProperties properties = new VotingProperties();
+        properties.getRateLimit().setVotesPerSecond(0.001);
+        properties.getRateLimit().setBurst(3);
+        VoteRateLimiter rateLimiter = new VoteRateLimiter(properties);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("10.0.0.1"));
+        }
+        assertFalse(rateLimiter.tryAcquire("10.0.0.1"));
+        assertTrue(rateLimiter.tryAcquire("10.0.0.2"));
+        assertEquals(1000, rateLimiter.retryAfterSeconds());
+    }
+
+    @Test
+    void rejectsRepeatVotesUntilTwoWindowsHavePassed() {
+        VotingProperties properties = new VotingProperties();
+        properties.getDedupe().setEnabled(true);
+        properties.getDedupe().setExpectedVotes(1000);
+        properties.getRateLimit().setEnabled(false);
+        VoteDeduplicator deduplicator = new VoteDeduplicator(properties);
+        VoteGuard voteGuard = new VoteGuard(properties, new VoteRateLimiter(properties), deduplicator,
+            new VotingMetrics(new SimpleMeterRegistry()));
+
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.1", "1"));
+        // Repeats are rejected while the first vote is in progress too
+        assertEquals(VoteGuard.Decision.DUPLICATE, voteGuard.check("10.0.0.1", "1"));
+        voteGuard.complete("10.0.0.1", "1", true);
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.1", "2"));
+        voteGuard.complete("10.0.0.1", "2", true);
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.2", "1"));
+        voteGuard.complete("10.0.0.2", "1", true);
+        assertEquals(VoteGuard.Decision.DUPLICATE, voteGuard.check("10.0.0.1", "1"));
+
+        deduplicator.rotate();
+        assertEquals(VoteGuard.Decision.DUPLICATE, voteGuard.check("10.0.0.1", "1"));
+        deduplicator.rotate();
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.1", "1"));
+    }
+
+    @Test
+    void failedVoteCanBeRetried() {
+        VotingProperties properties = new VotingProperties();
+        properties.getDedupe().setEnabled(true);
+        properties.getDedupe().setExpectedVotes(1000);
+        VoteGuard voteGuard = new VoteGuard(properties, new VoteRateLimiter(properties), new VoteDeduplicator(properties),
+            new VotingMetrics(new SimpleMeterRegistry()));
+
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.1", "1"));
+        voteGuard.complete("10.0.0.1", "1", false);
+        assertEquals(VoteGuard.Decision.ACCEPTED, voteGuard.check("10.0.0.1", "1"));
+    }
+}
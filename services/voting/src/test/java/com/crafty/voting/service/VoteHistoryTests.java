@@ -0,0 +1,141 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.VoteBucket;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VoteHistoryTests {
+
+    private static final Instant START = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Test
+    void ranksByVotesWithinTheWindow() {
+        MutableClock clock = new MutableClock(START);
+        VoteHistory history = new VoteHistory(new ListStore(), clock);
+
+        history.record(1L, 50);
+        clock.advance(Duration.ofMinutes(45));
+        history.record(2L, 10);
+        history.record(3L, 5);
+        clock.advance(Duration.ofMinutes(10));
+        history.record(3L, 20);
+
+        assertEquals(List.of(new VoteHistory.Trend(3L, 25), new VoteHistory.Trend(2L, 10)),
+            history.trending(Duration.ofMinutes(15), 10));
+        assertEquals(List.of(new VoteHistory.Trend(1L, 50), new VoteHistory.Trend(3L, 25)),
+            history.trending(Duration.ofHours(1), 2));
+        // Past the minute ring, older votes are still counted by the hour
+        clock.advance(Duration.ofHours(2));
+        assertEquals(List.of(), history.trending(Duration.ofMinutes(30), 10));
+        assertEquals(List.of(new VoteHistory.Trend(1L, 50), new VoteHistory.Trend(3L, 25), new VoteHistory.Trend(2L, 10)),
+            history.trending(Duration.ofHours(3), 10));
+    }
+
+    @Test
+    void persistedBucketsIncludeOtherReplicas() {
+        MutableClock clock = new MutableClock(START);
+        ListStore store = new ListStore();
+        VoteHistory replicaA = new VoteHistory(store, clock);
+        VoteHistory replicaB = new VoteHistory(store, clock);
+
+        replicaA.record(1L, 3);
+        replicaB.record(1L, 4);
+        replicaA.persist();
+        replicaB.persist();
+        replicaA.persist();
+
+        assertEquals(List.of(new VoteHistory.Trend(1L, 7)), replicaA.trending(Duration.ofHours(2), 10));
+        // Minute buckets are not shared, so windows up to an hour only see this replica's votes
+        assertEquals(List.of(new VoteHistory.Trend(1L, 3)), replicaA.trending(Duration.ofHours(1), 10));
+        assertEquals(VoteHistory.Scope.REPLICA, VoteHistory.scope(Duration.ofHours(1)));
+        assertEquals(VoteHistory.Scope.CLUSTER, VoteHistory.scope(Duration.ofMinutes(61)));
+        assertEquals(7, store.findSince(0).get(0).getVotes());
+    }
+
+    @Test
+    void deletesBucketsOlderThanTheHourRing() {
+        MutableClock clock = new MutableClock(START);
+        ListStore store = new ListStore();
+        VoteHistory history = new VoteHistory(store, clock);
+
+        history.record(1L, 3);
+        history.persist();
+        clock.advance(Duration.ofHours(VoteHistory.HOURS - 1));
+        history.deleteExpired();
+        assertEquals(1, store.findSince(0).size());
+
+        clock.advance(Duration.ofHours(1));
+        history.deleteExpired();
+        assertEquals(List.of(), store.findSince(0));
+    }
+
+    private static final class ListStore implements VoteHistoryStore {
+
+        private final List<VoteBucket> buckets = new ArrayList<>();
+
+        @Override
+        public void addVotes(long origamiId, long epochHour, long votes) {
+            for (VoteBucket bucket : buckets) {
+                if (bucket.getId().equals(VoteBucket.id(origamiId, epochHour))) {
+                    bucket.setVotes(bucket.getVotes() + votes);
+                    return;
+                }
+            }
+            VoteBucket bucket = new VoteBucket();
+            bucket.setId(VoteBucket.id(origamiId, epochHour));
+            bucket.setOrigamiId(origamiId);
+            bucket.setEpochHour(epochHour);
+            bucket.setVotes(votes);
+            buckets.add(bucket);
+        }
+
+        @Override
+        public List<VoteBucket> findSince(long epochHour) {
+            return buckets.stream().filter(bucket -> bucket.getEpochHour() >= epochHour).toList();
+        }
+
+        @Override
+        public long deleteBefore(long epochHour) {
+            int before = buckets.size();
+            buckets.removeIf(bucket -> bucket.getEpochHour() < epochHour);
+            return before - buckets.size();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.config.VotingProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteLogTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversUnflushedVotesAcrossSegments() throws Exception {
+        VoteLog voteLog = new VoteLog(properties());
+        assertTrue(voteLog.recover().isEmpty());
+        long position = 0;
+        // Small segments so that the records span several files
+        for (int i = 0; i < 10; i++) {
+            position = voteLog.append(i % 2 == 0 ? 1L : 2L, 1);
+        }
+        voteLog.sync(position);
+        long sealed = voteLog.seal();
+        voteLog.append(3L, 5);
+        voteLog.close();
+
+        VoteLog restarted = new VoteLog(properties());
+        assertEquals(Map.of(1L, 5L, 2L, 5L, 3L, 5L), restarted.recover());
+
+        voteLog.deleteBefore(sealed);
+        assertEquals(Map.of(3L, 5L), new VoteLog(properties()).recover());
+    }
+
+    @Test
+    void stopsAtATornRecord() throws Exception {
+        VoteLog voteLog = new VoteLog(properties());
+        voteLog.append(1L, 1);
+        voteLog.sync(voteLog.append(1L, 1));
+        voteLog.close();
+        try (var files = Files.list(directory)) {
+            Path segment = files.filter(file -> file.getFileName().toString().startsWith("votes-")).findFirst().orElseThrow();
+            byte[] bytes = Files.readAllBytes(segment);
+            bytes[20 + 9] ^= 1;
+            Files.write(segment, bytes);
+        }
+
+        assertEquals(Map.of(1L, 1L), new VoteLog(properties()).recover());
+    }
+
+    @Test
+    void recoversVotesBySegment() throws Exception {
+        VoteLog voteLog = new VoteLog(properties());
+        voteLog.append(1L, 2);
+        long sealed = voteLog.seal();
+        voteLog.append(1L, 3);
+        voteLog.sync(voteLog.append(2L, 1));
+        voteLog.close();
+
+        assertEquals(Map.of(sealed - 1, Map.of(1L, 2L), sealed, Map.of(1L, 3L, 2L, 1L)),
+            new VoteLog(properties()).recoverSegments());
+    }
+
+    @Test
+    void keepsItsIdUntilEverySegmentIsDeleted() throws Exception {
+        VoteLog voteLog = new VoteLog(properties());
+        assertNull(voteLog.getPreviousLogId());
+        voteLog.sync(voteLog.append(1L, 1));
+        voteLog.close();
+
+        VoteLog restarted = new VoteLog(properties());
+        assertEquals(voteLog.getLogId(), restarted.getLogId());
+        assertNull(restarted.getPreviousLogId());
+        restarted.deleteBefore(restarted.seal());
+        restarted.close();
+
+        // Segment indexes start over, so the new log must not share checkpoints with the old one
+        VoteLog emptied = new VoteLog(properties());
+        assertNotEquals(voteLog.getLogId(), emptied.getLogId());
+        assertEquals(voteLog.getLogId(), emptied.getPreviousLogId());
+    }
+
+    @Test
+    void rejectsSegmentsTooSmallForARecord() {
+        VotingProperties properties = properties();
+        properties.getVoteLog().setSegmentSizeBytes(19);
+
+        assertThrows(IllegalArgumentException.class, () -> new VoteLog(properties));
+    }
+
+    private VotingProperties properties() {
+        VotingProperties properties = new VotingProperties();
+        properties.getVoteLog().setEnabled(true);
+        properties.getVoteLog().setDirectory(directory.toString());
+        properties.getVoteLog().setSegmentSizeBytes(64);
+        return properties;
+    }
+}
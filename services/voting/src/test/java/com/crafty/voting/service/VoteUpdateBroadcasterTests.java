@@ -0,0 +1,65 @@
+package com.crafty.voting.service;
+
+import com.crafty.voting.model.Origami;
+import com.crafty.voting.model.VoteUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteUpdateBroadcasterTests {
+
+    @Test
+    void stalledSubscriberDelaysNeitherOthersNorThePush() throws Exception {
+        VoteUpdateBroadcaster broadcaster = new VoteUpdateBroadcaster(2);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        BlockingQueue<VoteUpdate> received = new LinkedBlockingQueue<>();
+        try {
+            broadcaster.subscribe(null, update -> {
+                delivering.countDown();
+                awaitQuietly(stalled);
+            }, dropped::countDown);
+            broadcaster.subscribe(null, received::add);
+
+            for (long id = 1; id <= 4; id++) {
+                broadcaster.publish(origami(id, 10 * id));
+                // Returns although the first subscriber blocks on its first update
+                broadcaster.pushChanges();
+                VoteUpdate update = received.poll(5, TimeUnit.SECONDS);
+                assertEquals(id, update.getOrigamiId());
+                assertEquals(10 * id, update.getVotes());
+                if (id == 1) {
+                    // Later updates queue up rather than being taken in the same drain as the first
+                    assertTrue(delivering.await(5, TimeUnit.SECONDS));
+                }
+            }
+            // Three origamis queued behind the stalled one overflow its buffer of two
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+        } finally {
+            stalled.countDown();
+            broadcaster.shutdown();
+        }
+    }
+
+    private static Origami origami(long id, long votes) {
+        Origami origami = new Origami();
+        origami.setOrigamiId(id);
+        origami.setVotes(votes);
+        return origami;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}